@@ -0,0 +1,79 @@
+#!/bin/bash
+
+# Compares the blocking (/api/products) and reactive (/api/reactive/products)
+# read paths under increasing concurrency using hey.
+# The application must be built with -Dproduct.reactive.enabled=true.
+
+set -e
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+DURATION="${DURATION:-30s}"
+CONCURRENCY_LEVELS="${CONCURRENCY_LEVELS:-50 200 500 1000}"
+PRODUCT_ID="${PRODUCT_ID:-1}"
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+echo_info() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+echo_warn() {
+    echo -e "${YELLOW}[WARN]${NC} $1"
+}
+
+echo_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+check_prerequisites() {
+    if ! command -v hey &> /dev/null; then
+        echo_error "hey is not installed (go install github.com/rakyll/hey@latest)."
+        exit 1
+    fi
+
+    if ! curl -sf "$BASE_URL/api/reactive/products/$PRODUCT_ID" > /dev/null; then
+        echo_error "Reactive endpoint not reachable. Build with -Dproduct.reactive.enabled=true and check PRODUCT_ID."
+        exit 1
+    fi
+}
+
+# Prints "<requests/sec> <p99 ms>" for one run
+run() {
+    local url=$1
+    local concurrency=$2
+    local output
+
+    output=$(hey -z "$DURATION" -c "$concurrency" "$url")
+    local rps
+    rps=$(echo "$output" | awk '/Requests\/sec:/ {print $2}')
+    local p99
+    p99=$(echo "$output" | awk '/99% in/ {printf "%.1f", $3 * 1000}')
+    echo "$rps ${p99:-n/a}"
+}
+
+main() {
+    check_prerequisites
+
+    echo_info "Warming up both paths..."
+    hey -z 10s -c 50 "$BASE_URL/api/products/$PRODUCT_ID" > /dev/null
+    hey -z 10s -c 50 "$BASE_URL/api/reactive/products/$PRODUCT_ID" > /dev/null
+
+    for endpoint in "/$PRODUCT_ID" "?size=100"; do
+        echo_info "Endpoint: $endpoint (duration $DURATION per run)"
+        printf "%-12s %-10s %12s %12s\n" "concurrency" "path" "req/s" "p99 (ms)"
+        for concurrency in $CONCURRENCY_LEVELS; do
+            read -r rps p99 <<< "$(run "$BASE_URL/api/products$endpoint" "$concurrency")"
+            printf "%-12s %-10s %12s %12s\n" "$concurrency" "blocking" "$rps" "$p99"
+            read -r rps p99 <<< "$(run "$BASE_URL/api/reactive/products$endpoint" "$concurrency")"
+            printf "%-12s %-10s %12s %12s\n" "$concurrency" "reactive" "$rps" "$p99"
+        done
+    done
+
+    echo_warn "Product lookups by id are cached on the blocking path; compare list endpoints for raw database throughput."
+}
+
+main "$@"
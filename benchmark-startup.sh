@@ -0,0 +1,138 @@
+#!/bin/bash
+
+# Compares the JVM image (Dockerfile) with the native image (Dockerfile.native):
+# time from container start to the first successful product request, and
+# resident memory after startup and after a steady-state load.
+# Uses the PostgreSQL container from docker-compose.yml.
+#   ./benchmark-startup.sh              build both images, then measure
+#   SKIP_BUILD=true ./benchmark-startup.sh
+
+set -e
+
+JVM_IMAGE="${JVM_IMAGE:-simple-quarkus-app:jvm}"
+NATIVE_IMAGE="${NATIVE_IMAGE:-simple-quarkus-app:native}"
+RUNS="${RUNS:-5}"
+LOAD_DURATION="${LOAD_DURATION:-30s}"
+LOAD_CONCURRENCY="${LOAD_CONCURRENCY:-50}"
+PORT="${PORT:-8180}"
+CONTAINER=startup-benchmark
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+echo_info() {
+    echo -e "${GREEN}[INFO]${NC} $1" >&2
+}
+
+echo_error() {
+    echo -e "${RED}[ERROR]${NC} $1" >&2
+}
+
+check_prerequisites() {
+    for tool in docker curl hey; do
+        if ! command -v "$tool" &> /dev/null; then
+            echo_error "$tool is not installed."
+            exit 1
+        fi
+    done
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Resident set size of the container's main process in MiB
+rss_mib() {
+    local pid
+    pid=$(docker inspect -f '{{.State.Pid}}' "$CONTAINER")
+    if [ -r "/proc/$pid/status" ]; then
+        awk '/VmRSS/ {printf "%.0f", $2 / 1024}' "/proc/$pid/status"
+    else
+        # Docker Desktop: the process is in a VM, fall back to the cgroup usage
+        docker stats --no-stream --format '{{.MemUsage}}' "$CONTAINER" | awk '{print $1}'
+    fi
+}
+
+stop_app() {
+    docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+}
+
+# Prints the milliseconds from docker run until /api/products answers
+start_app() {
+    local image=$1
+    local start
+    start=$(now_ms)
+    docker run -d --name "$CONTAINER" --network "$NETWORK" -p "$PORT:8080" \
+        -e QUARKUS_DATASOURCE_JDBC_URL=jdbc:postgresql://quarkus_postgres:5432/inventory_db \
+        "$image" > /dev/null
+    until curl -sf "http://localhost:$PORT/api/products?size=1" > /dev/null; do
+        if [ $(($(now_ms) - start)) -gt 120000 ]; then
+            echo_error "$image did not answer within 2 minutes"
+            docker logs "$CONTAINER" >&2
+            stop_app
+            exit 1
+        fi
+        sleep 0.01
+    done
+    echo $(($(now_ms) - start))
+}
+
+measure() {
+    local mode=$1
+    local image=$2
+    local total=0
+    local best=""
+    local startup
+
+    for run in $(seq 1 "$RUNS"); do
+        stop_app
+        startup=$(start_app "$image")
+        echo_info "$mode run $run: first request after ${startup} ms"
+        total=$((total + startup))
+        if [ -z "$best" ] || [ "$startup" -lt "$best" ]; then
+            best=$startup
+        fi
+    done
+
+    local idle_rss
+    idle_rss=$(rss_mib)
+    echo_info "$mode: steady-state load for $LOAD_DURATION..."
+    hey -z "$LOAD_DURATION" -c "$LOAD_CONCURRENCY" "http://localhost:$PORT/api/products?size=50" > /dev/null
+    local loaded_rss
+    loaded_rss=$(rss_mib)
+    stop_app
+
+    printf "%-8s %14s %14s %14s %14s\n" "$mode" "$((total / RUNS))" "$best" "$idle_rss" "$loaded_rss"
+}
+
+main() {
+    check_prerequisites
+
+    if [ "$SKIP_BUILD" != "true" ]; then
+        echo_info "Building $JVM_IMAGE..."
+        docker build -q -f Dockerfile -t "$JVM_IMAGE" . > /dev/null
+        echo_info "Building $NATIVE_IMAGE (takes several minutes)..."
+        docker build -q -f Dockerfile.native -t "$NATIVE_IMAGE" . > /dev/null
+    fi
+
+    echo_info "Starting PostgreSQL..."
+    docker compose up -d postgres
+    until docker exec quarkus_postgres pg_isready -U postgres -d inventory_db > /dev/null 2>&1; do
+        sleep 1
+    done
+    NETWORK=$(docker inspect -f '{{range $name, $v := .NetworkSettings.Networks}}{{$name}}{{end}}' quarkus_postgres)
+
+    trap stop_app EXIT
+    local jvm native
+    jvm=$(measure jvm "$JVM_IMAGE")
+    native=$(measure native "$NATIVE_IMAGE")
+
+    echo
+    printf "%-8s %14s %14s %14s %14s\n" "mode" "avg first ms" "best first ms" "idle RSS MiB" "loaded RSS MiB"
+    echo "$jvm"
+    echo "$native"
+}
+
+main "$@"
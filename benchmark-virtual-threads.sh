@@ -0,0 +1,93 @@
+#!/bin/bash
+
+# Compares blocking endpoints on the worker pool against virtual threads at
+# 1k+ concurrent connections using hey. Start two instances of the same build:
+#   worker pool:     Java 17 runtime                           -> WORKER_URL
+#   virtual threads: Java 21 runtime, QUARKUS_PROFILE=prod,virtual-threads -> VIRTUAL_URL
+# Tail latency differences are largest while the database is slow, e.g. under
+# a concurrent bulk import or with network latency added to the database host.
+
+set -e
+
+WORKER_URL="${WORKER_URL:-http://localhost:8080}"
+VIRTUAL_URL="${VIRTUAL_URL:-http://localhost:8090}"
+DURATION="${DURATION:-30s}"
+CONCURRENCY_LEVELS="${CONCURRENCY_LEVELS:-1000 2000 5000}"
+ENDPOINTS="${ENDPOINTS:-/api/products?size=50 /api/products/search?name=phone}"
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+echo_info() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+echo_warn() {
+    echo -e "${YELLOW}[WARN]${NC} $1"
+}
+
+echo_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+check_prerequisites() {
+    if ! command -v hey &> /dev/null; then
+        echo_error "hey is not installed (go install github.com/rakyll/hey@latest)."
+        exit 1
+    fi
+
+    for url in "$WORKER_URL" "$VIRTUAL_URL"; do
+        if ! curl -sf "$url/q/health" > /dev/null; then
+            echo_error "No healthy instance at $url"
+            exit 1
+        fi
+    done
+
+    if [ "$(ulimit -n)" != "unlimited" ] && [ "$(ulimit -n)" -lt 10000 ]; then
+        echo_warn "Open file limit is $(ulimit -n); raise it (ulimit -n 65535) for 1k+ connections."
+    fi
+}
+
+# Prints "<requests/sec> <p99 ms> <error count>" for one run
+run() {
+    local url=$1
+    local concurrency=$2
+    local output
+
+    output=$(hey -z "$DURATION" -c "$concurrency" "$url")
+    local rps
+    rps=$(echo "$output" | awk '/Requests\/sec:/ {print $2}')
+    local p99
+    p99=$(echo "$output" | awk '/99% in/ {printf "%.1f", $3 * 1000}')
+    local errors
+    errors=$(echo "$output" | awk '/Error distribution:/ {found=1; next} found && /\[[0-9]+\]/ {gsub(/[\[\]]/, "", $1); sum += $1} END {print sum + 0}')
+    echo "$rps ${p99:-n/a} $errors"
+}
+
+main() {
+    check_prerequisites
+
+    echo_info "Warming up both instances..."
+    for url in "$WORKER_URL" "$VIRTUAL_URL"; do
+        hey -z 10s -c 100 "$url/api/products?size=50" > /dev/null
+    done
+
+    for endpoint in $ENDPOINTS; do
+        echo_info "Endpoint: $endpoint (duration $DURATION per run)"
+        printf "%-12s %-10s %12s %12s %10s\n" "concurrency" "mode" "req/s" "p99 (ms)" "errors"
+        for concurrency in $CONCURRENCY_LEVELS; do
+            read -r rps p99 errors <<< "$(run "$WORKER_URL$endpoint" "$concurrency")"
+            printf "%-12s %-10s %12s %12s %10s\n" "$concurrency" "worker" "$rps" "$p99" "$errors"
+            read -r rps p99 errors <<< "$(run "$VIRTUAL_URL$endpoint" "$concurrency")"
+            printf "%-12s %-10s %12s %12s %10s\n" "$concurrency" "virtual" "$rps" "$p99" "$errors"
+        done
+    done
+
+    echo_info "Pinned carrier threads on the virtual instance:"
+    curl -s "$VIRTUAL_URL/q/metrics" | grep "^jvm_threads_virtual_pinned" || echo "  none recorded"
+}
+
+main "$@"
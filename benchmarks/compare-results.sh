@@ -0,0 +1,69 @@
+#!/bin/bash
+
+# Compares two JMH JSON result files (e.g. last release vs. this build) and
+# fails when any benchmark got slower than the threshold.
+#
+#   ./compare-results.sh baseline.json target/jmh-result.json [threshold-percent]
+
+set -e
+
+BASELINE="$1"
+CURRENT="$2"
+THRESHOLD="${3:-10}"
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+echo_info() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+echo_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+if [ -z "$BASELINE" ] || [ -z "$CURRENT" ]; then
+    echo "Usage: $0 <baseline.json> <current.json> [threshold-percent]"
+    exit 1
+fi
+
+if ! command -v jq &> /dev/null; then
+    echo_error "jq is not installed."
+    exit 1
+fi
+
+# One line per benchmark: name, mode, baseline score, current score, change in %
+# (positive is always a slowdown: more time or less throughput) and verdict
+REPORT=$(jq -r -n --slurpfile base "$BASELINE" --slurpfile cur "$CURRENT" --argjson threshold "$THRESHOLD" '
+    ($base[0] | map({key: .benchmark, value: .}) | from_entries) as $b
+    | $cur[0][]
+    | select($b[.benchmark] != null)
+    | . as $c
+    | $b[$c.benchmark].primaryMetric.score as $old
+    | $c.primaryMetric.score as $new
+    | (if $c.mode == "thrpt" then ($old - $new) / $old else ($new - $old) / $old end * 100) as $change
+    | (if $change > $threshold then "slower" elif $change < -$threshold then "faster" else "same" end) as $verdict
+    | [($c.benchmark | split(".") | .[-2:] | join(".")), $c.mode, $old, $new, $c.primaryMetric.scoreUnit, $change,
+       $verdict]
+    | @tsv')
+
+REGRESSIONS=0
+printf "%-55s %-6s %14s %14s %-8s %9s\n" "benchmark" "mode" "baseline" "current" "unit" "slowdown"
+while IFS=$'\t' read -r name mode old new unit change verdict; do
+    [ -z "$name" ] && continue
+    case "$verdict" in
+        slower) color=$RED; REGRESSIONS=$((REGRESSIONS + 1)) ;;
+        faster) color=$GREEN ;;
+        *) color=$NC ;;
+    esac
+    printf "%-55s %-6s %14.3f %14.3f %-8s ${color}%8.1f%%${NC}\n" "$name" "$mode" "$old" "$new" "$unit" "$change"
+done <<< "$REPORT"
+
+if [ "$REGRESSIONS" -gt 0 ]; then
+    echo_error "$REGRESSIONS benchmark(s) regressed by more than $THRESHOLD%"
+    exit 1
+fi
+echo_info "No regression above $THRESHOLD%"
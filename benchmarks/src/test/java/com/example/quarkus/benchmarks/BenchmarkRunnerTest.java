@@ -0,0 +1,45 @@
+package com.example.quarkus.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Runs the JMH benchmarks inside the running application. JMH cannot fork a
+ * JVM with a started Quarkus, so everything runs in this one (forks = 0):
+ * keep the machine otherwise idle and compare results from the same host.
+ * Results are written as JSON to {@code jmh.result}.
+ */
+@QuarkusTest
+public class BenchmarkRunnerTest {
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        int iterationSeconds = Integer.getInteger("jmh.iteration-seconds", 2);
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.includes", "com.example.quarkus.benchmarks"))
+                .forks(0)
+                .threads(Integer.getInteger("jmh.threads", 1))
+                .warmupIterations(Integer.getInteger("jmh.warmup-iterations", 3))
+                .warmupTime(TimeValue.seconds(iterationSeconds))
+                .measurementIterations(Integer.getInteger("jmh.measurement-iterations", 5))
+                .measurementTime(TimeValue.seconds(iterationSeconds))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+        assertFalse(results.isEmpty(), "No benchmark matched " + System.getProperty("jmh.includes"));
+    }
+}
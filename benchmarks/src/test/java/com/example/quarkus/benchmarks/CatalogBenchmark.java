@@ -0,0 +1,115 @@
+package com.example.quarkus.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.quarkus.catalog.ColumnarCatalog;
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductRepository;
+
+import io.quarkus.arc.Arc;
+
+/**
+ * The same reads served by the {@link ColumnarCatalog} and by the database
+ * through {@link ProductRepository}: a lookup by id, pages of 50 by
+ * category, by price range and of low-stock products, and a category count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogBenchmark {
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final PageRequest FIRST_PAGE = PageRequest.of(null, 50, 1000);
+    private static final ProductFilter PRICE_RANGE =
+            ProductFilter.priceBetween(new BigDecimal("40.00"), new BigDecimal("45.00"));
+    private static final ProductFilter LOW_STOCK = ProductFilter.lowStock(8);
+
+    private ColumnarCatalog catalog;
+    private ProductRepository productRepository;
+    private Long[] ids;
+
+    @Setup
+    public void setup() {
+        catalog = Arc.container().instance(ColumnarCatalog.class).get();
+        productRepository = Arc.container().instance(ProductRepository.class).get();
+        List<Long> seeded = Fixtures.seed();
+        ids = seeded.toArray(Long[]::new);
+        catalog.rebuild();
+    }
+
+    private Long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static ProductFilter randomCategory() {
+        return ProductFilter.byCategory(CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)]);
+    }
+
+    @Benchmark
+    public Product catalogFindById() {
+        return catalog.findById(randomId());
+    }
+
+    @Benchmark
+    public Product databaseFindById() {
+        Long id = randomId();
+        return Fixtures.inRequest(() -> productRepository.findById(id));
+    }
+
+    @Benchmark
+    public Page<Product> catalogCategoryPage() {
+        return catalog.findPage(randomCategory().criteria(), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Product> databaseCategoryPage() {
+        ProductFilter filter = randomCategory();
+        return Fixtures.inRequest(() -> productRepository.findPage(filter, FIRST_PAGE));
+    }
+
+    @Benchmark
+    public Page<Product> catalogPriceRangePage() {
+        return catalog.findPage(PRICE_RANGE.criteria(), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Product> databasePriceRangePage() {
+        return Fixtures.inRequest(() -> productRepository.findPage(PRICE_RANGE, FIRST_PAGE));
+    }
+
+    @Benchmark
+    public Page<Product> catalogLowStockPage() {
+        return catalog.findPage(LOW_STOCK.criteria(), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Product> databaseLowStockPage() {
+        return Fixtures.inRequest(() -> productRepository.findPage(LOW_STOCK, FIRST_PAGE));
+    }
+
+    @Benchmark
+    public long catalogCountByCategory() {
+        return catalog.count(randomCategory().criteria());
+    }
+
+    @Benchmark
+    public long databaseCountByCategory() {
+        ProductCategory category = CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)];
+        return Fixtures.inRequest(() -> productRepository.countByCategory(category));
+    }
+}
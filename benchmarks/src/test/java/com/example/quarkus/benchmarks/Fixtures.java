@@ -0,0 +1,90 @@
+package com.example.quarkus.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.service.BulkItemResult;
+import com.example.quarkus.service.BulkMode;
+import com.example.quarkus.service.ProductService;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+/**
+ * Shared test data for the benchmarks.
+ */
+final class Fixtures {
+
+    static final int PRODUCTS = 10_000;
+    static final String SKU_PREFIX = "BENCH-";
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    private Fixtures() {
+    }
+
+    static Product product(int i) {
+        Product product = new Product("Benchmark Product " + i, "Description of benchmark product " + i,
+                new BigDecimal("19.99").add(BigDecimal.valueOf(i % 100)), 5 + i % 50, SKU_PREFIX + i,
+                CATEGORIES[i % CATEGORIES.length], i % 10 != 0);
+        product.id = (long) i;
+        product.version = 0L;
+        product.createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        product.updatedAt = product.createdAt;
+        return product;
+    }
+
+    /**
+     * Inserts the benchmark products unless a previous trial already did,
+     * and returns their ids.
+     */
+    static synchronized List<Long> seed() {
+        ProductRepository repository = Arc.container().instance(ProductRepository.class).get();
+        ProductService service = Arc.container().instance(ProductService.class).get();
+
+        long existing = QuarkusTransaction.requiringNew().call(() -> repository.count("sku like ?1", SKU_PREFIX + "%"));
+        if (existing < PRODUCTS) {
+            for (int from = 0; from < PRODUCTS; from += 500) {
+                Map<Integer, Product> chunk = new LinkedHashMap<>();
+                for (int i = from; i < Math.min(from + 500, PRODUCTS); i++) {
+                    Product product = product(i);
+                    product.id = null;
+                    product.version = null;
+                    chunk.put(i, product);
+                }
+                service.importChunk(chunk, BulkMode.UPSERT).stream()
+                        .filter(result -> result.status() == BulkItemResult.Status.FAILED)
+                        .findFirst()
+                        .ifPresent(result -> {
+                            throw new IllegalStateException("Seeding failed: " + result.error());
+                        });
+            }
+        }
+        return QuarkusTransaction.requiringNew().call(() -> repository.getEntityManager()
+                .createQuery("select p.id from Product p where p.sku like ?1 order by p.id", Long.class)
+                .setParameter(1, SKU_PREFIX + "%")
+                .getResultList());
+    }
+
+    /**
+     * Runs {@code work} in a fresh request context, as every HTTP request does,
+     * so each invocation gets its own persistence context.
+     */
+    static <T> T inRequest(Supplier<T> work) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            return work.get();
+        } finally {
+            requestContext.terminate();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.quarkus.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.format.ProductFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.arc.Arc;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Encoding a page of 100 products in each negotiable format, with and without
+ * gzip on top. The encoded size of every combination is printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductEncodingBenchmark {
+
+    @Param({ MediaType.APPLICATION_JSON, ProductFormats.APPLICATION_CBOR, ProductFormats.APPLICATION_SMILE })
+    public String format;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private ObjectMapper mapper;
+    private List<Product> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = Arc.container().instance(ProductFormats.class).get().mapper(MediaType.valueOf(format));
+        page = IntStream.range(0, 100).mapToObj(Fixtures::product).toList();
+        encoded = encode();
+        System.out.printf("%n%s%s: %d bytes per page of 100%n", format, gzip ? " + gzip" : "", encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encodePageOf100() throws IOException {
+        return encode();
+    }
+
+    @Benchmark
+    public Product[] decodePageOf100() throws IOException {
+        return mapper.readValue(gzip ? gunzip(encoded) : encoded, Product[].class);
+    }
+
+    private byte[] encode() throws IOException {
+        byte[] body = mapper.writeValueAsBytes(page);
+        if (!gzip) {
+            return body;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+            compressed.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
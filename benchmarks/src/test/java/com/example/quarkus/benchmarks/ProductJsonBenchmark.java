@@ -0,0 +1,64 @@
+package com.example.quarkus.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.quarkus.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.arc.Arc;
+
+/**
+ * Product (de)serialization through the application's own ObjectMapper, with
+ * every customizer Quarkus applies to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> page;
+    private byte[] productJson;
+    private byte[] pageJson;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = Arc.container().instance(ObjectMapper.class).get();
+        product = Fixtures.product(1);
+        page = IntStream.range(0, 100).mapToObj(Fixtures::product).toList();
+        productJson = objectMapper.writeValueAsBytes(product);
+        pageJson = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws IOException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public Product deserializeProduct() throws IOException {
+        return objectMapper.readValue(productJson, Product.class);
+    }
+
+    @Benchmark
+    public byte[] serializePageOf100() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Product[] deserializePageOf100() throws IOException {
+        return objectMapper.readValue(pageJson, Product[].class);
+    }
+}
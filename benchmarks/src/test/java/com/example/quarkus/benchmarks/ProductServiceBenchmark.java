@@ -0,0 +1,98 @@
+package com.example.quarkus.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.ProductFields;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.repository.ProductSort;
+import com.example.quarkus.repository.ProductVersion;
+import com.example.quarkus.search.SearchQuery;
+import com.example.quarkus.service.ProductService;
+
+import io.quarkus.arc.Arc;
+
+/**
+ * {@code ProductService} lookups against the test H2 database, seeded with
+ * {@link Fixtures#PRODUCTS} products. Each invocation runs in its own request
+ * context, like an HTTP request, and picks a random product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+
+    private static final ProductFields FIELDS = ProductFields.parse("id,sku,price,quantity");
+
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private Long[] ids;
+
+    @Setup
+    public void setup() {
+        productService = Arc.container().instance(ProductService.class).get();
+        productRepository = Arc.container().instance(ProductRepository.class).get();
+        List<Long> seeded = Fixtures.seed();
+        ids = seeded.toArray(Long[]::new);
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(ids.length);
+    }
+
+    @Benchmark
+    public Product getByIdCached() {
+        Long id = ids[randomIndex()];
+        return Fixtures.inRequest(() -> productService.getProductById(id));
+    }
+
+    @Benchmark
+    public Product findByIdUncached() {
+        Long id = ids[randomIndex()];
+        return Fixtures.inRequest(() -> productRepository.findById(id));
+    }
+
+    @Benchmark
+    public Product getBySkuCached() {
+        String sku = Fixtures.SKU_PREFIX + randomIndex();
+        return Fixtures.inRequest(() -> productService.getProductBySku(sku));
+    }
+
+    @Benchmark
+    public Map<String, Object> findProjectedById() {
+        Long id = ids[randomIndex()];
+        return Fixtures.inRequest(() -> productRepository.findOne(ProductFilter.byId(id), FIELDS));
+    }
+
+    @Benchmark
+    public ProductVersion findVersionById() {
+        Long id = ids[randomIndex()];
+        return Fixtures.inRequest(() -> productRepository.findVersionById(id));
+    }
+
+    @Benchmark
+    public Page<Product> firstPageOf50() {
+        return Fixtures.inRequest(() -> productService.getProducts(ProductFilter.active(), ProductSort.ID,
+                PageRequest.of(null, 50, 1000)));
+    }
+
+    @Benchmark
+    public Page<Product> searchByName() {
+        SearchQuery query = SearchQuery.of("benchmark product " + randomIndex());
+        return Fixtures.inRequest(() -> productService.searchProducts(query, 0, 20));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.quarkus.benchmarks;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.service.ProductService;
+
+import io.quarkus.arc.Arc;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * What {@code @Valid} adds to {@code createProduct} and {@code updateProduct}:
+ * plain bean validation of a valid and an invalid product, and the method
+ * parameter validation the interceptor performs on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductValidationBenchmark {
+
+    private Validator validator;
+    private ProductService productService;
+    private Method createProduct;
+    private Method updateProduct;
+    private Product valid;
+    private Product invalid;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        validator = Arc.container().instance(Validator.class).get();
+        productService = Arc.container().instance(ProductService.class).get();
+        createProduct = ProductService.class.getMethod("createProduct", Product.class);
+        updateProduct = ProductService.class.getMethod("updateProduct", Long.class, Product.class);
+        valid = Fixtures.product(1);
+        invalid = Fixtures.product(2);
+        invalid.name = "";
+        invalid.price = new BigDecimal("-1");
+        invalid.sku = null;
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Product>> validProduct() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Product>> invalidProduct() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductService>> createProductParameters() {
+        return validator.forExecutables().validateParameters(productService, createProduct, new Object[] { valid });
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductService>> updateProductParameters() {
+        return validator.forExecutables().validateParameters(productService, updateProduct,
+                new Object[] { valid.id, valid });
+    }
+}
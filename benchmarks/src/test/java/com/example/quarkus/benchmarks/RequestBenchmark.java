@@ -0,0 +1,83 @@
+package com.example.quarkus.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * End-to-end request handling over HTTP against the application started by
+ * the test: routing, parameter binding, service call, serialization and the
+ * network stack on loopback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestBenchmark {
+
+    private HttpClient client;
+    private String baseUrl;
+    private Long[] ids;
+    private String[] etags;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        int port = ConfigProvider.getConfig().getOptionalValue("quarkus.http.test-port", Integer.class).orElse(8081);
+        baseUrl = "http://localhost:" + port + "/api/products";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<Long> seeded = Fixtures.seed();
+        ids = seeded.subList(0, Math.min(1000, seeded.size())).toArray(Long[]::new);
+        etags = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            etags[i] = get("/" + ids[i], null).headers().firstValue("ETag").orElseThrow();
+        }
+    }
+
+    @Benchmark
+    public int getProductById() throws IOException, InterruptedException {
+        return get("/" + ids[ThreadLocalRandom.current().nextInt(ids.length)], null).statusCode();
+    }
+
+    @Benchmark
+    public int getProductByIdNotModified() throws IOException, InterruptedException {
+        int i = ThreadLocalRandom.current().nextInt(ids.length);
+        return get("/" + ids[i], etags[i]).statusCode();
+    }
+
+    @Benchmark
+    public int getPageOf50() throws IOException, InterruptedException {
+        return get("?size=50", null).statusCode();
+    }
+
+    @Benchmark
+    public int searchByName() throws IOException, InterruptedException {
+        return get("/search?name=benchmark%20product%20" + ThreadLocalRandom.current().nextInt(ids.length) + "&size=20",
+                null).statusCode();
+    }
+
+    private HttpResponse<byte[]> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json");
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response;
+    }
+}
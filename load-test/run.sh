@@ -0,0 +1,87 @@
+#!/bin/bash
+
+# Runs the HTTP load test against a freshly started application.
+#   load-test/run.sh compose [--option=value ...]   app + Postgres from docker-compose.yml
+#   load-test/run.sh h2 [--option=value ...]        app in dev mode on in-memory H2
+#   load-test/run.sh url [--option=value ...]       an already running instance (--url=...)
+#   load-test/run.sh compare base.json new.json
+# Options are described in LoadTestOptions; results go to load-test/results/.
+# Use the same options (and machine) for runs you want to compare.
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+MODE="${1:-compose}"
+shift || true
+APP_URL="${APP_URL:-http://localhost:8080}"
+APP_PID=""
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+echo_info() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+echo_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+cleanup() {
+    if [ -n "$APP_PID" ]; then
+        echo_info "Stopping the H2 instance..."
+        kill "$APP_PID" 2> /dev/null || true
+    fi
+}
+
+wait_for_health() {
+    echo_info "Waiting for $APP_URL/q/health..."
+    for _ in $(seq 1 120); do
+        if curl -sf "$APP_URL/q/health" > /dev/null; then
+            return
+        fi
+        sleep 2
+    done
+    echo_error "Application did not become healthy"
+    exit 1
+}
+
+run_load_test() {
+    ./mvnw -q -f load-test/pom.xml compile exec:java -Dexec.args="$*"
+}
+
+main() {
+    case "$MODE" in
+        compose)
+            echo_info "Starting Postgres and the application with docker compose..."
+            docker compose up -d --build postgres quarkus-app
+            wait_for_health
+            ;;
+        h2)
+            echo_info "Starting the application on in-memory H2..."
+            trap cleanup EXIT
+            ./mvnw -q quarkus:dev -Dquarkus.profile=test -Dquarkus.hibernate-orm.log.sql=false \
+                -Dquarkus.log.level=WARN -Dquarkus.test.continuous-testing=disabled > load-test/h2-app.log 2>&1 &
+            APP_PID=$!
+            wait_for_health
+            ;;
+        url)
+            wait_for_health
+            ;;
+        compare)
+            run_load_test compare "$@"
+            return
+            ;;
+        *)
+            echo_error "Unknown mode $MODE (compose, h2, url or compare)"
+            exit 1
+            ;;
+    esac
+
+    run_load_test --url="$APP_URL" --label="$MODE" --output="load-test/results/$MODE-$(date +%Y%m%d-%H%M%S).json" "$@"
+}
+
+main "$@"
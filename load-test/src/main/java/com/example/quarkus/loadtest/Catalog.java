@@ -0,0 +1,102 @@
+package com.example.quarkus.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The products the load test works on, seeded through the bulk import API.
+ * Entries are ordered by popularity rank: entry 0 is the hottest key.
+ */
+final class Catalog {
+
+    static final String SKU_PREFIX = "LOAD-";
+    static final String[] CATEGORIES = { "ELECTRONICS", "CLOTHING", "BOOKS", "HOME_GARDEN", "SPORTS", "TOYS",
+            "AUTOMOTIVE", "BEAUTY", "FOOD_BEVERAGE", "OTHER" };
+    static final String[] WORDS = { "wireless", "classic", "compact", "organic", "premium", "portable", "vintage",
+            "ergonomic", "smart", "deluxe", "rugged", "studio" };
+    static final int INITIAL_STOCK = 1_000_000;
+
+    private static final int CHUNK = 1000;
+
+    record Entry(long id, String sku, String name, String category) {
+    }
+
+    private final List<Entry> entries;
+
+    private Catalog(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    Entry get(int rank) {
+        return entries.get(rank);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static String sku(int rank) {
+        return String.format("%s%06d", SKU_PREFIX, rank);
+    }
+
+    static String name(int rank) {
+        return "Load " + WORDS[rank % WORDS.length] + " " + WORDS[(rank / WORDS.length) % WORDS.length]
+                + " item " + rank;
+    }
+
+    static String json(String sku, String name, String category, String price, int quantity) {
+        return String.format("{\"name\":\"%s\",\"description\":\"Load test product %s\",\"price\":%s,"
+                + "\"quantity\":%d,\"sku\":\"%s\",\"category\":\"%s\",\"active\":true}",
+                name, sku, price, quantity, sku, category);
+    }
+
+    /**
+     * Upserts {@code products} products (resetting their stock) and returns
+     * them with their ids.
+     */
+    static Catalog seed(HttpClient client, ObjectMapper mapper, String baseUrl, int products)
+            throws IOException, InterruptedException {
+        Map<String, Long> ids = new HashMap<>();
+        for (int from = 0; from < products; from += CHUNK) {
+            StringBuilder body = new StringBuilder();
+            for (int rank = from; rank < Math.min(from + CHUNK, products); rank++) {
+                String price = (5 + rank % 200) + ".99";
+                body.append(json(sku(rank), name(rank), CATEGORIES[rank % CATEGORIES.length], price, INITIAL_STOCK))
+                        .append('\n');
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/bulk?mode=UPSERT"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            JsonNode result = mapper.readTree(response.body());
+            if (response.statusCode() != 200 || result.path("failed").asInt() > 0) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": "
+                        + response.body());
+            }
+            for (JsonNode item : result.path("items")) {
+                ids.put(item.path("sku").asText(), item.path("id").asLong());
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(products);
+        for (int rank = 0; rank < products; rank++) {
+            Long id = ids.get(sku(rank));
+            if (id == null) {
+                throw new IllegalStateException("No id returned for " + sku(rank));
+            }
+            entries.add(new Entry(id, sku(rank), name(rank), CATEGORIES[rank % CATEGORIES.length]));
+        }
+        return new Catalog(entries);
+    }
+}
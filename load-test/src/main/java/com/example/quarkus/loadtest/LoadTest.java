@@ -0,0 +1,202 @@
+package com.example.quarkus.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Drives the product API with a configurable read/write mix and key skew and
+ * reports latency percentiles, throughput and error rates per operation.
+ *
+ * <pre>
+ * LoadTest [--name=value ...]      run, see {@link LoadTestOptions}
+ * LoadTest compare base.json new.json
+ * </pre>
+ *
+ * With {@code --rate} the load is open-loop: each worker has a schedule of
+ * intended start times and latency is measured from the intended start, so a
+ * stalled server shows up in the percentiles instead of silently lowering the
+ * request rate (coordinated omission). Without it each worker sends its next
+ * request as soon as the previous one completes.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (args.length > 0 && args[0].equals("compare")) {
+            if (args.length != 3) {
+                throw new IllegalArgumentException("Usage: compare <baseline.json> <candidate.json>");
+            }
+            compare(mapper.readValue(Path.of(args[1]).toFile(), RunResult.class),
+                    mapper.readValue(Path.of(args[2]).toFile(), RunResult.class), System.out);
+            return;
+        }
+
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("Seeding %d products at %s%n", options.products(), options.url());
+        Catalog catalog = Catalog.seed(client, mapper, options.url(), options.products());
+        Workload workload = new Workload(options.url(), catalog, options, mapper);
+        double hotShare = workload.keys().share(Math.max(1, options.products() / 100));
+        System.out.printf("Hottest 1%% of products receive %.1f%% of keyed requests%n", hotShare * 100);
+
+        Outcomes outcomes = new Outcomes();
+        String startedAt = Instant.now().toString();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        // Each worker gets an equal share of the target rate
+        long interval = options.rate() > 0 ? TimeUnit.SECONDS.toNanos(options.concurrency()) / options.rate() : 0;
+
+        System.out.printf("Warming up for %ds, then measuring for %ds with %d workers%s%n",
+                options.warmup().toSeconds(), options.duration().toSeconds(), options.concurrency(),
+                interval > 0 ? " at " + options.rate() + " req/s" : " (closed loop)");
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.concurrency(); i++) {
+            // Stagger the schedules so the workers don't fire in lockstep
+            long first = start + (interval * i) / options.concurrency();
+            Thread worker = new Thread(() -> work(client, workload, outcomes, first, interval, measureFrom, end),
+                    "load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // Only requests intended to start inside the measurement window are recorded
+        double seconds = options.duration().toNanos() / 1e9;
+
+        RunResult result = outcomes.summarise(options, startedAt, seconds, hotShare);
+        report(result, System.out);
+
+        Path output = options.output();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        mapper.writeValue(output.toFile(), result);
+        System.out.printf("%nResults written to %s%n", output);
+        if (result.total().errorRate() > 0) {
+            System.out.printf("%d requests failed%n", result.total().clientErrors() + result.total().serverErrors()
+                    + result.total().failures());
+        }
+    }
+
+    private static void work(HttpClient client, Workload workload, Outcomes outcomes, long first, long interval,
+            long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = first;
+        while (true) {
+            long intended;
+            if (interval > 0) {
+                intended = next;
+                next += interval;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= end) {
+                return;
+            }
+
+            Workload.Call call = workload.next(random);
+            int status;
+            try {
+                HttpResponse<String> response = client.send(call.request(), HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                workload.completed(call, response);
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (intended >= measureFrom) {
+                outcomes.record(call.operation(), status, System.nanoTime() - intended);
+            }
+        }
+    }
+
+    static void report(RunResult result, PrintStream out) {
+        out.printf("%n%-13s %9s %9s %9s %9s %9s %9s %9s %8s %7s%n", "operation", "requests", "req/s", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "409s");
+        result.operations().forEach((name, operation) -> row(out, name, operation));
+        row(out, "TOTAL", result.total());
+    }
+
+    private static void row(PrintStream out, String name, OperationResult result) {
+        out.printf("%-13s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7.2f%% %7d%n", name, result.requests(),
+                result.throughput(), result.p50(), result.p90(), result.p99(), result.p999(), result.max(),
+                result.errorRate() * 100, result.conflicts());
+    }
+
+    /**
+     * Prints throughput, percentile and error rate changes of {@code candidate}
+     * against {@code baseline}; negative latency deltas are improvements.
+     */
+    static void compare(RunResult baseline, RunResult candidate, PrintStream out) {
+        out.printf("baseline:  %s %s%n", baseline.startedAt(), baseline.label());
+        out.printf("candidate: %s %s%n", candidate.startedAt(), candidate.label());
+        for (String setting : new String[] { "concurrency", "rate", "readRatio", "products", "zipfExponent",
+                "mix" }) {
+            Object before = baseline.settings().get(setting);
+            Object after = candidate.settings().get(setting);
+            if (before != null && !before.equals(after)) {
+                out.printf("warning: %s differs (%s vs %s)%n", setting, before, after);
+            }
+        }
+
+        out.printf("%n%-13s %16s %22s %22s %22s %16s%n", "operation", "req/s", "p50 ms", "p99 ms", "p99.9 ms",
+                "error rate");
+        Set<String> names = new LinkedHashSet<>(baseline.operations().keySet());
+        names.addAll(candidate.operations().keySet());
+        for (String name : names) {
+            OperationResult before = baseline.operations().get(name);
+            OperationResult after = candidate.operations().get(name);
+            if (before == null || after == null) {
+                out.printf("%-13s only in %s%n", name, before == null ? "candidate" : "baseline");
+                continue;
+            }
+            compareRow(out, name, before, after);
+        }
+        compareRow(out, "TOTAL", baseline.total(), candidate.total());
+    }
+
+    private static void compareRow(PrintStream out, String name, OperationResult before, OperationResult after) {
+        out.printf("%-13s %16s %22s %22s %22s %7.2f%%->%5.2f%%%n", name,
+                change(before.throughput(), after.throughput(), "%.0f"),
+                change(before.p50(), after.p50(), "%.2f"),
+                change(before.p99(), after.p99(), "%.2f"),
+                change(before.p999(), after.p999(), "%.2f"),
+                before.errorRate() * 100, after.errorRate() * 100);
+    }
+
+    private static String change(double before, double after, String format) {
+        String delta = before == 0 ? "" : String.format(" (%+.0f%%)", (after - before) / before * 100);
+        return String.format(format + "->" + format + "%s", before, after, delta);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.quarkus.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, all given as {@code --name=value}.
+ *
+ * <ul>
+ * <li>{@code --url}: application base URL (default http://localhost:8080)</li>
+ * <li>{@code --duration}, {@code --warmup}: e.g. 60s, 2m (defaults 60s and 10s)</li>
+ * <li>{@code --concurrency}: concurrent connections (default 64)</li>
+ * <li>{@code --rate}: total requests per second; 0 runs closed-loop, as fast
+ * as responses come back (default 0)</li>
+ * <li>{@code --read-ratio}: share of reads, 0 to 1 (default 0.9)</li>
+ * <li>{@code --products}: size of the seeded catalog (default 1000)</li>
+ * <li>{@code --zipf}: Zipf exponent of the key distribution; 0 is uniform,
+ * around 1 is a typical hot-key skew (default 1.0)</li>
+ * <li>{@code --mix}: operation weights, e.g. GET_BY_ID=50,SEARCH=10 (others
+ * keep their defaults)</li>
+ * <li>{@code --output}: result file, relative to the working directory
+ * (default load-test/results/run-&lt;timestamp&gt;.json)</li>
+ * <li>{@code --label}: free text stored with the result</li>
+ * </ul>
+ */
+record LoadTestOptions(
+        String url,
+        Duration duration,
+        Duration warmup,
+        int concurrency,
+        int rate,
+        double readRatio,
+        int products,
+        double zipfExponent,
+        Map<Operation, Integer> weights,
+        Path output,
+        String label) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.defaultWeight());
+        }
+        String mix = values.remove("mix");
+        if (mix != null) {
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.split("=");
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("url", "http://localhost:8080").replaceAll("/+$", ""),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Integer.parseInt(values.getOrDefault("rate", "0")),
+                Double.parseDouble(values.getOrDefault("read-ratio", "0.9")),
+                Integer.parseInt(values.getOrDefault("products", "1000")),
+                Double.parseDouble(values.getOrDefault("zipf", "1.0")),
+                weights,
+                Path.of(values.getOrDefault("output", "load-test/results/run-" + System.currentTimeMillis() + ".json")),
+                values.getOrDefault("label", ""));
+
+        for (String known : new String[] { "url", "duration", "warmup", "concurrency", "rate", "read-ratio",
+                "products", "zipf", "output", "label" }) {
+            values.remove(known);
+        }
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.readRatio < 0 || options.readRatio > 1) {
+            throw new IllegalArgumentException("--read-ratio must be between 0 and 1");
+        }
+        if (options.concurrency < 1 || options.products < 1) {
+            throw new IllegalArgumentException("--concurrency and --products must be positive");
+        }
+        return options;
+    }
+
+    // 500ms, 30s, 2m
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value + " (use ms, s or m)");
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.quarkus.loadtest;
+
+/**
+ * The product API calls the load test issues, with their default share of
+ * the reads or the writes.
+ */
+enum Operation {
+    GET_BY_ID(false, 35),
+    GET_BY_SKU(false, 20),
+    LIST(false, 10),
+    CATEGORY(false, 10),
+    SEARCH(false, 15),
+    LOW_STOCK(false, 5),
+    STATS(false, 5),
+    ADJUST_STOCK(true, 50),
+    UPDATE_STOCK(true, 10),
+    UPDATE(true, 20),
+    CREATE(true, 10),
+    DELETE(true, 10);
+
+    private final boolean write;
+    private final int defaultWeight;
+
+    Operation(boolean write, int defaultWeight) {
+        this.write = write;
+        this.defaultWeight = defaultWeight;
+    }
+
+    boolean isWrite() {
+        return write;
+    }
+
+    int defaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.quarkus.loadtest;
+
+/**
+ * Latency percentiles in milliseconds, throughput in requests per second.
+ * Conflicts (409) are expected under concurrent writes and are not counted
+ * as errors. The histogram is HdrHistogram's compressed encoding, base64,
+ * in microseconds.
+ */
+record OperationResult(
+        long requests,
+        double throughput,
+        long ok,
+        long conflicts,
+        long clientErrors,
+        long serverErrors,
+        long failures,
+        double errorRate,
+        double p50,
+        double p90,
+        double p99,
+        double p999,
+        double max,
+        String histogram) {
+}
@@ -0,0 +1,121 @@
+package com.example.quarkus.loadtest;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies (in microseconds) and response classes per operation. Recording
+ * is safe from any number of worker threads.
+ */
+final class Outcomes {
+
+    private static final class Counters {
+        final Recorder latency = new Recorder(3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private final Map<Operation, Counters> counters = new EnumMap<>(Operation.class);
+
+    Outcomes() {
+        for (Operation operation : Operation.values()) {
+            counters.put(operation, new Counters());
+        }
+    }
+
+    /**
+     * @param status the HTTP status, or -1 when no response arrived (I/O
+     *        error or timeout)
+     */
+    void record(Operation operation, int status, long latencyNanos) {
+        Counters counter = counters.get(operation);
+        counter.latency.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (status < 0) {
+            counter.failures.increment();
+        } else if (status < 400) {
+            counter.ok.increment();
+        } else if (status == 409) {
+            counter.conflicts.increment();
+        } else if (status < 500) {
+            counter.clientErrors.increment();
+        } else {
+            counter.serverErrors.increment();
+        }
+    }
+
+    /**
+     * Summarises everything recorded so far, per operation that was issued
+     * at least once plus a total over all of them.
+     */
+    RunResult summarise(LoadTestOptions options, String startedAt, double seconds, double hotShare) {
+        Map<String, OperationResult> operations = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        long ok = 0;
+        long conflicts = 0;
+        long clientErrors = 0;
+        long serverErrors = 0;
+        long failures = 0;
+        for (Map.Entry<Operation, Counters> entry : counters.entrySet()) {
+            Counters counter = entry.getValue();
+            Histogram histogram = counter.latency.getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            ok += counter.ok.sum();
+            conflicts += counter.conflicts.sum();
+            clientErrors += counter.clientErrors.sum();
+            serverErrors += counter.serverErrors.sum();
+            failures += counter.failures.sum();
+            operations.put(entry.getKey().name(), result(histogram, seconds, counter.ok.sum(),
+                    counter.conflicts.sum(), counter.clientErrors.sum(), counter.serverErrors.sum(),
+                    counter.failures.sum()));
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("url", options.url());
+        settings.put("durationSeconds", options.duration().toSeconds());
+        settings.put("warmupSeconds", options.warmup().toSeconds());
+        settings.put("concurrency", options.concurrency());
+        settings.put("rate", options.rate());
+        settings.put("readRatio", options.readRatio());
+        settings.put("products", options.products());
+        settings.put("zipfExponent", options.zipfExponent());
+        settings.put("hottestOnePercentShare", hotShare);
+        settings.put("mix", options.weights());
+
+        return new RunResult(options.label(), startedAt, settings, seconds,
+                result(all, seconds, ok, conflicts, clientErrors, serverErrors, failures), operations);
+    }
+
+    private static OperationResult result(Histogram histogram, double seconds, long ok, long conflicts,
+            long clientErrors, long serverErrors, long failures) {
+        long requests = histogram.getTotalCount();
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] encoded = new byte[length];
+        buffer.rewind();
+        buffer.get(encoded);
+
+        return new OperationResult(requests, requests / seconds, ok, conflicts, clientErrors, serverErrors,
+                failures, (double) (clientErrors + serverErrors + failures) / requests,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()), Base64.getEncoder().encodeToString(encoded));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.quarkus.loadtest;
+
+import java.util.Map;
+
+/**
+ * What a run writes to its result file, and what {@code compare} reads back.
+ */
+record RunResult(
+        String label,
+        String startedAt,
+        Map<String, Object> settings,
+        double seconds,
+        OperationResult total,
+        Map<String, OperationResult> operations) {
+}
@@ -0,0 +1,151 @@
+package com.example.quarkus.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Picks the next operation according to the read ratio and the operation
+ * weights, and the product it targets according to the Zipf distribution.
+ * Products created during the run are the only ones ever deleted, so the
+ * seeded catalog stays intact.
+ */
+final class Workload {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    record Call(Operation operation, HttpRequest request) {
+    }
+
+    private final String api;
+    private final Catalog catalog;
+    private final ZipfDistribution keys;
+    private final double readRatio;
+    private final Operation[] reads;
+    private final int[] readWeights;
+    private final Operation[] writes;
+    private final int[] writeWeights;
+    private final ObjectMapper mapper;
+    private final Queue<Long> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    Workload(String baseUrl, Catalog catalog, LoadTestOptions options, ObjectMapper mapper) {
+        this.api = baseUrl + "/api/products";
+        this.catalog = catalog;
+        this.keys = new ZipfDistribution(catalog.size(), options.zipfExponent());
+        this.mapper = mapper;
+        this.reads = select(options.weights(), false);
+        this.readWeights = weights(reads, options.weights());
+        this.writes = select(options.weights(), true);
+        this.writeWeights = weights(writes, options.weights());
+        if (reads.length == 0 && writes.length == 0) {
+            throw new IllegalArgumentException("All operation weights are zero");
+        }
+        // A side without any weighted operation hands its share to the other one
+        this.readRatio = reads.length == 0 ? 0 : writes.length == 0 ? 1 : options.readRatio();
+    }
+
+    ZipfDistribution keys() {
+        return keys;
+    }
+
+    Call next(RandomGenerator random) {
+        Operation operation = random.nextDouble() < readRatio
+                ? pick(reads, readWeights, random)
+                : pick(writes, writeWeights, random);
+        Catalog.Entry product = catalog.get(keys.sample(random));
+
+        return switch (operation) {
+            case GET_BY_ID -> get(operation, "/" + product.id());
+            case GET_BY_SKU -> get(operation, "/sku/" + product.sku());
+            case LIST -> get(operation, "?size=50");
+            case CATEGORY -> get(operation, "/category/" + product.category() + "?size=50");
+            case SEARCH -> get(operation, "/search?size=20&name="
+                    + URLEncoder.encode(product.name().split(" ")[1 + random.nextInt(2)], StandardCharsets.UTF_8));
+            case LOW_STOCK -> get(operation, "/low-stock?size=50");
+            case STATS -> get(operation, "/stats");
+            case ADJUST_STOCK -> put(operation, "/" + product.id() + "/stock/adjust",
+                    "{\"adjustment\":" + (random.nextBoolean() ? 1 : -1) + "}");
+            case UPDATE_STOCK -> put(operation, "/" + product.id() + "/stock",
+                    "{\"quantity\":" + Catalog.INITIAL_STOCK + "}");
+            case UPDATE -> put(operation, "/" + product.id(), Catalog.json(product.sku(), product.name(),
+                    product.category(), (5 + random.nextInt(200)) + ".99", Catalog.INITIAL_STOCK));
+            case CREATE -> create();
+            case DELETE -> delete();
+        };
+    }
+
+    void completed(Call call, HttpResponse<String> response) throws IOException {
+        if (call.operation() == Operation.CREATE && response.statusCode() == 201) {
+            created.add(mapper.readTree(response.body()).path("id").asLong());
+        }
+    }
+
+    private Call create() {
+        String sku = "LT-" + runId + "-" + sequence.incrementAndGet();
+        return new Call(Operation.CREATE, request("")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(Catalog.json(sku, "Load transient " + sku, "OTHER",
+                        "9.99", 10)))
+                .build());
+    }
+
+    private Call delete() {
+        Long id = created.poll();
+        if (id == null) {
+            return create();
+        }
+        return new Call(Operation.DELETE, request("/" + id).DELETE().build());
+    }
+
+    private Call get(Operation operation, String path) {
+        return new Call(operation, request(path).header("Accept", "application/json").GET().build());
+    }
+
+    private Call put(Operation operation, String path, String body) {
+        return new Call(operation, request(path)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(api + path)).timeout(TIMEOUT);
+    }
+
+    private static Operation pick(Operation[] operations, int[] cumulativeWeights, RandomGenerator random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        return operations[index >= 0 ? index : -index - 1];
+    }
+
+    private static Operation[] select(Map<Operation, Integer> weights, boolean write) {
+        return weights.entrySet().stream()
+                .filter(entry -> entry.getKey().isWrite() == write && entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toArray(Operation[]::new);
+    }
+
+    private static int[] weights(Operation[] operations, Map<Operation, Integer> weights) {
+        int[] cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.quarkus.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s, by
+ * binary search over the precomputed cumulative distribution. Rank 0 is the
+ * hottest key; s = 0 is uniform.
+ */
+final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    ZipfDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // Not found: binarySearch returns -(insertion point) - 1
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Share of all samples that fall on the {@code top} hottest ranks.
+     */
+    double share(int top) {
+        return top <= 0 ? 0 : cumulative[Math.min(top, cumulative.length) - 1];
+    }
+}
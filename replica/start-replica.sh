@@ -0,0 +1,15 @@
+#!/bin/sh
+# Clones the primary on first start, then runs as a hot standby streaming from it
+set -e
+
+export PGDATA=/var/lib/postgresql/data
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup -h postgres -U postgres -D "$PGDATA" -R -X stream; do
+        echo "Waiting for the primary..."
+        sleep 2
+    done
+    chmod 700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on
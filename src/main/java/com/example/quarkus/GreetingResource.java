@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -17,6 +18,7 @@ public class GreetingResource {
     @GET
     @Path("/hello")
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
     public Response hello(@QueryParam("name") String name) {
         Map<String, Object> response = new HashMap<>();
 
@@ -33,6 +35,7 @@ public class GreetingResource {
     @GET
     @Path("/status")
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
     public Response status() {
         Map<String, Object> status = new HashMap<>();
 
@@ -48,6 +51,7 @@ public class GreetingResource {
     @GET
     @Path("/info")
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
     public Response info() {
         Map<String, Object> info = new HashMap<>();
 
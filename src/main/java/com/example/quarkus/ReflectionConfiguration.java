@@ -0,0 +1,59 @@
+package com.example.quarkus;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.monitoring.ConnectionAcquisitionListener;
+import com.example.quarkus.monitoring.EntityLoadListener;
+import com.example.quarkus.outbox.ProductChange;
+import com.example.quarkus.repository.ProductQuantity;
+import com.example.quarkus.repository.ProductVersion;
+import com.example.quarkus.reservation.Availability;
+import com.example.quarkus.reservation.Reservation;
+import com.example.quarkus.reservation.ReservationItem;
+import com.example.quarkus.service.BatchGetItem;
+import com.example.quarkus.service.BatchGetResult;
+import com.example.quarkus.service.BulkItemResult;
+import com.example.quarkus.service.BulkResult;
+import com.example.quarkus.service.PendingStockAdjustment;
+import com.example.quarkus.stats.ProductStats;
+import com.example.quarkus.stock.LowStockAlert;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Classes used reflectively that native image analysis cannot discover on its
+ * own. Resource methods return {@code Response}, so the types Jackson writes
+ * and reads are not registered from their signatures. Hibernate instantiates
+ * {@link ProductVersion} and {@link ProductQuantity} from HQL constructor
+ * expressions, and it creates
+ * the session and entity listeners by name. Outbox payloads and the change
+ * stream are serialized outside any resource method. {@code Map} responses
+ * need no entry because Jackson serializes them without reflection, and
+ * Panache entities and repositories are enhanced at build time.
+ */
+@RegisterForReflection(targets = {
+        Product.class,
+        ProductCategory.class,
+        ProductVersion.class,
+        ProductQuantity.class,
+        ProductStats.class,
+        ProductStats.CategoryStats.class,
+        BulkResult.class,
+        BatchGetResult.class,
+        BatchGetItem.class,
+        BulkItemResult.class,
+        BulkItemResult.Status.class,
+        PendingStockAdjustment.class,
+        ProductSnapshot.class,
+        ProductChange.class,
+        Reservation.class,
+        ReservationItem.class,
+        Availability.class,
+        LowStockAlert.class,
+        LowStockAlert.Type.class,
+        ConnectionAcquisitionListener.class,
+        EntityLoadListener.class
+})
+public class ReflectionConfiguration {
+}
@@ -0,0 +1,13 @@
+package com.example.quarkus.cache;
+
+/**
+ * A JSON response body serialized once and served as is. {@code gzipped} is
+ * null when the body is below the compression threshold. {@code nextCursor}
+ * is set for list pages that have a next page.
+ */
+public record EncodedResponse(byte[] body, byte[] gzipped, String nextCursor) {
+
+    int weight() {
+        return body.length + (gzipped != null ? gzipped.length : 0);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.quarkus.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+/**
+ * Read-through cache for product lookups by id and SKU.
+ *
+ * Products are stored once, keyed by id; the SKU cache only maps a SKU to an
+ * id, so activations and stock changes only need the id to invalidate. SKUs
+ * that are known not to exist are remembered for a short time so scanners
+ * probing missing SKUs do not reach the database.
+ *
+ * Cached products are detached entities shared between requests and must be
+ * treated as read-only.
+ */
+@ApplicationScoped
+public class ProductCache {
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.cache.maximum-size", defaultValue = "10000")
+    long maximumSize;
+
+    @ConfigProperty(name = "product.cache.expire-after-write", defaultValue = "PT5M")
+    Duration expireAfterWrite;
+
+    @ConfigProperty(name = "product.cache.negative.maximum-size", defaultValue = "10000")
+    long negativeMaximumSize;
+
+    @ConfigProperty(name = "product.cache.negative.expire-after-write", defaultValue = "PT30S")
+    Duration negativeExpireAfterWrite;
+
+    private Cache<Long, Product> byId;
+    private Cache<String, Long> skuToId;
+    private Cache<String, Boolean> missingSkus;
+    private final AtomicLong generation = new AtomicLong();
+    // Incremented before every invalidation, so a SKU load can tell it may have read a stale row
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        byId = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .<Long, Product>build(), "product.by-id");
+        skuToId = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .<String, Long>build(), "product.sku-to-id");
+        missingSkus = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(negativeMaximumSize)
+                .expireAfterWrite(negativeExpireAfterWrite)
+                .recordStats()
+                .<String, Boolean>build(), "product.missing-sku");
+    }
+
+    public Product getById(Long id, Function<Long, Product> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return byId.get(id, loader);
+    }
+
+    // Never loads; lets callers that need less than a whole product skip the entity
+    public Product getIfPresent(Long id) {
+        return enabled ? byId.getIfPresent(id) : null;
+    }
+
+    public Product getIfPresent(String sku) {
+        if (!enabled) {
+            return null;
+        }
+        Long id = skuToId.getIfPresent(sku);
+        Product cached = id != null ? byId.getIfPresent(id) : null;
+        return cached != null && sku.equals(cached.sku) ? cached : null;
+    }
+
+    /**
+     * Incremented after every committed product change, whether or not the
+     * cache is enabled, and whenever changes made by other instances are
+     * evicted. Equal generations mean no product changed in between.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Product getBySku(String sku, Function<String, Product> loader) {
+        if (!enabled) {
+            return loader.apply(sku);
+        }
+        if (missingSkus.getIfPresent(sku) != null) {
+            return null;
+        }
+
+        Long id = skuToId.getIfPresent(sku);
+        if (id != null) {
+            Product cached = byId.getIfPresent(id);
+            // The id entry may have been reloaded after a SKU change
+            if (cached != null && sku.equals(cached.sku)) {
+                return cached;
+            }
+        }
+
+        long seen = invalidations.get();
+        Product product = loader.apply(sku);
+        if (product == null) {
+            putUnlessInvalidated(missingSkus, sku, Boolean.TRUE, seen);
+            return null;
+        }
+        putUnlessInvalidated(byId, product.id, product, seen);
+        putUnlessInvalidated(skuToId, sku, product.id, seen);
+        return product;
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        skuToId.invalidateAll();
+        missingSkus.invalidateAll();
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Evicts products changed by another instance, whose commits raise no
+     * event here, and moves the generation on like a local commit. A null
+     * snapshot stands for a deleted product.
+     */
+    public void changedElsewhere(Map<Long, ProductSnapshot> changes) {
+        invalidations.incrementAndGet();
+        changes.forEach((id, after) -> {
+            byId.invalidate(id);
+            invalidateSku(after);
+        });
+        generation.incrementAndGet();
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        invalidations.incrementAndGet();
+        byId.invalidate(event.productId());
+        invalidateSku(event.before());
+        invalidateSku(event.after());
+    }
+
+    // Runs after the other observers (search index included) so a reader that
+    // sees the new generation also sees the change
+    void advanceGeneration(@Observes(during = TransactionPhase.AFTER_SUCCESS)
+            @Priority(Interceptor.Priority.PLATFORM_AFTER) ProductChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    // The loader ran outside the cache, so a change may have been invalidated while it read.
+    // Checked under the entry's lock: an invalidation after the check removes the entry again.
+    private <K, V> void putUnlessInvalidated(Cache<K, V> cache, K key, V value, long seen) {
+        cache.asMap().compute(key, (k, current) -> invalidations.get() == seen ? value : current);
+    }
+
+    private void invalidateSku(ProductSnapshot snapshot) {
+        if (snapshot != null) {
+            skuToId.invalidate(snapshot.sku());
+            missingSkus.invalidate(snapshot.sku());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.quarkus.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Single-flight for identical reads: a caller asking for an operation and
+ * key that is already being loaded waits for that call and gets its result,
+ * or its exception, instead of querying again.
+ *
+ * Calls only share while the product generation (see
+ * {@link ProductCache#generation()}) is unchanged, so a read that starts
+ * after a committed write never gets a result loaded before it. Callers
+ * inside a transaction may see their own uncommitted writes and always run
+ * their own call. A follower waits at most {@code product.coalescing.max-wait}
+ * and then queries itself.
+ *
+ * Results are shared between requests and must be treated as read-only.
+ * {@code product.coalescing.calls} counts calls per operation by role:
+ * {@code leader} for calls that ran, {@code follower} for calls that waited
+ * for a leader instead, and {@code timeout} for followers that gave up and
+ * ran their own; followers minus timeouts are the queries saved.
+ */
+@ApplicationScoped
+public class RequestCoalescer {
+
+    @Inject
+    ProductCache productCache;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.coalescing.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.coalescing.max-wait", defaultValue = "2s")
+    Duration maxWait;
+
+    private record Flight(String operation, Object key, long generation) {
+    }
+
+    private final Map<Flight, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counter> calls = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        registry.gauge("product.coalescing.in-flight", flights, Map::size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        if (!enabled || QuarkusTransaction.isActive()) {
+            return loader.get();
+        }
+        Flight flight = new Flight(operation, key, productCache.generation());
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = flights.putIfAbsent(flight, call);
+        if (running == null) {
+            count(operation, "leader");
+            try {
+                T result = loader.get();
+                call.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(flight, call);
+            }
+        }
+
+        count(operation, "follower");
+        try {
+            return (T) running.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            count(operation, "timeout");
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operation, e);
+        }
+    }
+
+    private void count(String operation, String role) {
+        calls.computeIfAbsent(operation + '|' + role, name -> Counter.builder("product.coalescing.calls")
+                .tag("operation", operation)
+                .tag("role", role)
+                .register(registry)).increment();
+    }
+}
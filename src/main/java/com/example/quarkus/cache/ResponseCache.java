@@ -0,0 +1,148 @@
+package com.example.quarkus.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.catalog.CatalogChangeListener;
+import com.example.quarkus.format.ProductFormats;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Already serialized (and gzip compressed) response bodies, keyed by request
+ * and representation.
+ *
+ * Every entry remembers the product generation it was built in (see
+ * {@link ProductCache#generation()}). An entry from an older generation is
+ * rebuilt on its next use, so any committed write invalidates every cached
+ * response without touching the cache. A hit costs no query, no entity and no
+ * Jackson work.
+ *
+ * Writes made by other instances only move the generation on when the
+ * {@link CatalogChangeListener} follows them. Without it, entries expire
+ * {@code product.response-cache.expire-after-write} after they were built.
+ */
+@ApplicationScoped
+public class ResponseCache {
+
+    @Inject
+    ProductFormats formats;
+
+    @Inject
+    CatalogChangeListener changeListener;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.response-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.response-cache.maximum-weight", defaultValue = "64M")
+    MemorySize maximumWeight;
+
+    @ConfigProperty(name = "product.response-cache.gzip-min-size", defaultValue = "1024")
+    int gzipMinSize;
+
+    @ConfigProperty(name = "product.response-cache.expire-after-write", defaultValue = "PT30S")
+    Duration expireAfterWrite;
+
+    private record Entry(long generation, EncodedResponse response) {
+    }
+
+    private Cache<String, Entry> responses;
+    // Bodies that never change while the application runs
+    private final Map<String, EncodedResponse> constants = new ConcurrentHashMap<>();
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        Caffeine<String, Entry> builder = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.asLongValue())
+                .<String, Entry>weigher((key, entry) -> key.length() + entry.response().weight())
+                .recordStats();
+        if (!changeListener.isEnabled()) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        responses = CaffeineCacheMetrics.monitor(registry, builder.build(), "product.responses");
+        hits = registry.counter("product.response.cache", "result", "hit");
+        misses = registry.counter("product.response.cache", "result", "miss");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The expire-after-write window the current time falls in, or 0 when the
+     * writes of other instances are followed. List tags include it, so they
+     * do not outlive the entries by more than one window.
+     */
+    public long window() {
+        return changeListener.isEnabled() ? 0 : System.currentTimeMillis() / expireAfterWrite.toMillis();
+    }
+
+    /**
+     * The cached response for {@code key} if it was built in
+     * {@code generation}, otherwise a new one from {@code loader}. Callers read
+     * the generation before anything else so an entry is never newer than
+     * the generation it is filed under. Exceptions from the loader propagate
+     * and nothing is cached.
+     */
+    public EncodedResponse get(String key, long generation, Supplier<EncodedResponse> loader) {
+        Entry entry = responses.getIfPresent(key);
+        if (entry != null && entry.generation() == generation) {
+            hits.increment();
+            return entry.response();
+        }
+        misses.increment();
+        EncodedResponse response = loader.get();
+        responses.put(key, new Entry(generation, response));
+        return response;
+    }
+
+    public EncodedResponse constant(String key, Supplier<Object> body) {
+        return constants.computeIfAbsent(key, ignored -> encode(body.get(), null, MediaType.APPLICATION_JSON_TYPE));
+    }
+
+    /**
+     * Encodes {@code body} as {@code type}: JSON or one of the binary
+     * {@link ProductFormats}.
+     */
+    public EncodedResponse encode(Object body, String nextCursor, MediaType type) {
+        try {
+            byte[] bytes = formats.mapper(type).writeValueAsBytes(body);
+            return new EncodedResponse(bytes, bytes.length >= gzipMinSize ? gzip(bytes) : null, nextCursor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.quarkus.cache;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+/**
+ * Hibernate second-level cache regions for products: the entity region and
+ * the query cache regions of the first category and active-product pages
+ * of {@link ProductRepository}.
+ *
+ * Hibernate invalidates both on every entity write. Stock adjustments are
+ * written in plain SQL, which only invalidates the entity (see
+ * {@link ProductRepository#reload(Long)}). Cached queries hold ids only and
+ * none of them filters on stock, so those results stay valid; the query
+ * regions are evicted here only for changes to which products they list:
+ * creations, deletions, activation and category changes. Entity keys carry
+ * no tenant id, so invalidations also reach the entries cached by read
+ * replica sessions.
+ *
+ * Publishes {@code product.second-level-cache.hit.ratio} per region, next
+ * to the hibernate_* cache counters.
+ */
+@ApplicationScoped
+public class SecondLevelCache {
+
+    static final String ENTITY_REGION = Product.class.getName();
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    MeterRegistry registry;
+
+    void onStart(@Observes StartupEvent event) {
+        Statistics statistics = sessionFactory.getStatistics();
+        hitRatio(ENTITY_REGION, statistics::getDomainDataRegionStatistics);
+        hitRatio(ProductRepository.CATEGORY_QUERY_REGION, statistics::getQueryRegionStatistics);
+        hitRatio(ProductRepository.ACTIVE_QUERY_REGION, statistics::getQueryRegionStatistics);
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        if (changesListings(event)) {
+            sessionFactory.getCache().evictQueryRegion(ProductRepository.CATEGORY_QUERY_REGION);
+            sessionFactory.getCache().evictQueryRegion(ProductRepository.ACTIVE_QUERY_REGION);
+        }
+    }
+
+    private static boolean changesListings(ProductChangedEvent event) {
+        return switch (event.type()) {
+            case CREATED, DELETED, ACTIVATED, DEACTIVATED -> true;
+            case UPDATED -> event.before().category() != event.after().category()
+                    || !Objects.equals(event.before().active(), event.after().active());
+            case STOCK_CHANGED -> false;
+        };
+    }
+
+    private void hitRatio(String region, Function<String, CacheRegionStatistics> statistics) {
+        Gauge.builder("product.second-level-cache.hit.ratio", () -> {
+            // Query regions only exist once a query has been cached in them
+            CacheRegionStatistics stats;
+            try {
+                stats = statistics.apply(region);
+            } catch (IllegalArgumentException e) {
+                stats = null;
+            }
+            if (stats == null) {
+                return Double.NaN;
+            }
+            long requests = stats.getHitCount() + stats.getMissCount();
+            return requests == 0 ? Double.NaN : (double) stats.getHitCount() / requests;
+        }).tag("region", region).register(registry);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.quarkus.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import com.example.quarkus.cache.ProductCache;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Keeps the {@link ColumnarCatalog} in step with writes made by other
+ * instances. A trigger on {@code products}, installed by this listener from
+ * {@value #TRIGGER_SCRIPT}, notifies {@value #CHANNEL} with the id, operation
+ * and new version of every changed row; the listener holds a connection
+ * subscribed to it and reloads the rows the catalog does
+ * not have yet. Its own writes arrive here too and are skipped by version.
+ * Changed products are also evicted from the {@link ProductCache}, whose
+ * generation moves on, so cached responses and list ETags follow writes made
+ * elsewhere.
+ *
+ * Notifications sent while no connection listens are lost, so the catalog
+ * is rebuilt and the product cache cleared after every (re)subscription.
+ */
+@ApplicationScoped
+public class CatalogChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(CatalogChangeListener.class);
+
+    static final String CHANNEL = "product_changes";
+    static final String TRIGGER_SCRIPT = "db/catalog-notify.sql";
+
+    private static final int POLL_MILLIS = 500;
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ColumnarCatalog catalog;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    ProductCache productCache;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "product.catalog.listen.enabled", defaultValue = "false")
+    boolean enabled;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Whether changes made by other instances reach this one.
+     */
+    public boolean isEnabled() {
+        return enabled && catalog.isEnabled();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "catalog-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen() {
+        Duration backoff = Duration.ofSeconds(1);
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute(triggerScript());
+                statement.execute("LISTEN " + CHANNEL);
+                catalog.rebuild();
+                productCache.invalidateAll();
+                backoff = Duration.ofSeconds(1);
+
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+                    if (received != null && received.length > 0) {
+                        apply(received);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                LOG.warnf("Listening for product changes failed, retrying in %s: %s", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) < 0 ? backoff.multipliedBy(2) : MAX_BACKOFF;
+            }
+        }
+    }
+
+    private static String triggerScript() {
+        try (InputStream script = CatalogChangeListener.class.getClassLoader().getResourceAsStream(TRIGGER_SCRIPT)) {
+            if (script == null) {
+                throw new IllegalStateException("Missing " + TRIGGER_SCRIPT);
+            }
+            return new String(script.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void apply(PGNotification[] received) {
+        List<Long> stale = new ArrayList<>();
+        Map<Long, ProductSnapshot> changes = new HashMap<>();
+        List<Long> sentAt = new ArrayList<>();
+        for (PGNotification notification : received) {
+            JsonNode change;
+            try {
+                change = objectMapper.readTree(notification.getParameter());
+            } catch (JsonProcessingException e) {
+                LOG.warnf("Ignoring malformed product change notification: %s", notification.getParameter());
+                continue;
+            }
+            long id = change.path("id").asLong();
+            if ("DELETE".equals(change.path("op").asText())) {
+                catalog.remove(id);
+                changes.put(id, null);
+            } else if (catalog.versionOf(id) < change.path("version").asLong()) {
+                stale.add(id);
+            } else {
+                continue;
+            }
+            sentAt.add(change.path("at").asLong());
+        }
+        if (!stale.isEmpty()) {
+            List<ProductSnapshot> products = QuarkusTransaction.requiringNew().call(() ->
+                    productRepository.findByIds(stale).stream().map(ProductSnapshot::of).toList());
+            products.forEach(catalog::apply);
+            // Ids no longer found were deleted meanwhile; their DELETE is on its way
+            stale.forEach(id -> changes.put(id, null));
+            products.forEach(product -> changes.put(product.id(), product));
+        }
+        if (!changes.isEmpty()) {
+            productCache.changedElsewhere(changes);
+        }
+        long now = System.currentTimeMillis();
+        for (long at : sentAt) {
+            catalog.recordLag(Duration.ofMillis(now - at));
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package com.example.quarkus.catalog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.ProductCriteria;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.repository.ProductVersion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * The whole catalog in memory, one primitive array per column: prices as
+ * cents, quantities, category ordinals, versions and timestamps as numbers,
+ * and name, description and SKU as UTF-8 outside the heap. Products are
+ * found by id and SKU through hash indexes, and by price and quantity ranges
+ * through {@link SortedIndex}es; an id-ordered index serves keyset pages.
+ *
+ * Loaded at startup and updated from committed {@link ProductChangedEvent}s
+ * of this instance; {@link CatalogChangeListener} applies the writes of
+ * other instances. A change older than the version held is ignored, so the
+ * two sources may overlap. {@code product.catalog.lag} times how long a
+ * change takes from its write to the catalog.
+ */
+@ApplicationScoped
+public class ColumnarCatalog {
+
+    private static final Logger LOG = Logger.getLogger(ColumnarCatalog.class);
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final byte NO_CATEGORY = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    // A range index is only worth gathering and sorting when it is much smaller than the catalog
+    private static final int RANGE_SELECTIVITY = 8;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.catalog.enabled", defaultValue = "false")
+    boolean enabled;
+
+    // The listener loads the catalog itself once it is subscribed, so no change falls in between
+    @ConfigProperty(name = "product.catalog.listen.enabled", defaultValue = "false")
+    boolean listen;
+
+    @ConfigProperty(name = "product.catalog.initial-capacity", defaultValue = "16384")
+    int initialCapacity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns;
+    // Changes applied while a rebuild loads new columns, replayed onto them before they replace the old ones
+    private List<Consumer<Columns>> buffered;
+
+    // Set once a load has started: changes are applied from then on, even before reads are served
+    private volatile boolean tracking;
+    private volatile boolean ready;
+    private Timer lag;
+
+    // Bounds of a ProductCriteria in column units; -1 is "any" for category and status
+    private record Query(int category, int active, long minPrice, long maxPrice, long minQuantity,
+            long maxQuantity) {
+    }
+
+    private record Range(SortedIndex index, int from, int to) {
+
+        int size() {
+            return to - from;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        lag = Timer.builder("product.catalog.lag")
+                .description("Time from a product write to its application in the columnar catalog")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        registry.gauge("product.catalog.products", this, catalog -> catalog.size());
+        registry.gauge("product.catalog.off-heap.bytes", this, catalog -> catalog.offHeapBytes());
+        columns = new Columns(initialCapacity);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled && !listen) {
+            rebuild();
+        }
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        if (!tracking) {
+            return;
+        }
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            remove(event.productId());
+            return;
+        }
+        apply(event.after());
+        if (event.after().updatedAt() != null) {
+            recordLag(Duration.between(event.after().updatedAt(), LocalDateTime.now()));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether reads can be served from the catalog: enabled and loaded.
+     */
+    public boolean isServing() {
+        return enabled && ready;
+    }
+
+    /**
+     * Reloads every product from the database into new columns. Reads fall
+     * back to the database meanwhile. Changes arriving during the load are
+     * applied to the old columns and replayed onto the new ones, which then
+     * replace them under the lock; versions make the replay idempotent.
+     */
+    @Transactional
+    public synchronized void rebuild() {
+        ready = false;
+        long start = System.nanoTime();
+        Columns loaded;
+        lock.writeLock().lock();
+        try {
+            tracking = true;
+            buffered = new ArrayList<>();
+            loaded = new Columns(Math.max(initialCapacity, columns.size()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (Stream<Product> products = productRepository.stream(ProductFilter.all(), null)) {
+            products.forEach(product -> {
+                loaded.put(ProductSnapshot.of(product));
+                productRepository.getEntityManager().detach(product);
+            });
+        } catch (RuntimeException e) {
+            finishRebuild(null);
+            throw e;
+        }
+        finishRebuild(loaded);
+        ready = true;
+        LOG.infof("Loaded %d products into the columnar catalog in %d ms", size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public void apply(ProductSnapshot product) {
+        change(table -> table.put(product));
+    }
+
+    public void remove(Long id) {
+        change(table -> table.remove(id));
+    }
+
+    void recordLag(Duration duration) {
+        lag.record(duration.isNegative() ? Duration.ZERO : duration);
+    }
+
+    public Product findById(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = columns.slotById.get(id);
+            return slot != null ? columns.materialize(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Product findBySku(String sku) {
+        lock.readLock().lock();
+        try {
+            Integer slot = columns.slotBySku.get(sku);
+            return slot != null ? columns.materialize(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductVersion findVersionById(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = columns.slotById.get(id);
+            return slot != null ? new ProductVersion(columns.ids[slot], columns.versions[slot]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductVersion findVersionBySku(String sku) {
+        lock.readLock().lock();
+        try {
+            Integer slot = columns.slotBySku.get(sku);
+            return slot != null ? new ProductVersion(columns.ids[slot], columns.versions[slot]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A keyset page in id order, as {@link ProductRepository#findPage} returns it.
+     */
+    public Page<Product> findPage(ProductCriteria criteria, PageRequest pageRequest) {
+        Query query = query(criteria);
+        long afterId = pageRequest.afterId() != null ? pageRequest.afterId() : Long.MIN_VALUE;
+        int limit = pageRequest.size() + 1;
+        List<Product> rows = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Columns table = columns;
+            Range range = table.narrowest(query);
+            if (range == null) {
+                // Matches are dense enough that walking in id order soon fills the page
+                for (int position = table.byId.upperBound(afterId); position < table.byId.size()
+                        && rows.size() < limit; position++) {
+                    int slot = table.byId.slotAt(position);
+                    if (table.matches(slot, query)) {
+                        rows.add(table.materialize(slot));
+                    }
+                }
+            } else {
+                long[] matched = new long[range.size()];
+                int count = 0;
+                for (int position = range.from(); position < range.to(); position++) {
+                    int slot = range.index().slotAt(position);
+                    if (table.ids[slot] > afterId && table.matches(slot, query)) {
+                        matched[count++] = table.ids[slot];
+                    }
+                }
+                Arrays.sort(matched, 0, count);
+                for (int i = 0; i < Math.min(count, limit); i++) {
+                    rows.add(table.materialize(table.slotById.get(matched[i])));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Page.of(rows, pageRequest.size(), product -> product.id);
+    }
+
+    public long count(ProductCriteria criteria) {
+        Query query = query(criteria);
+        lock.readLock().lock();
+        try {
+            Columns table = columns;
+            Range range = table.narrowest(query);
+            SortedIndex index = range != null ? range.index() : table.byId;
+            int from = range != null ? range.from() : 0;
+            int to = range != null ? range.to() : table.byId.size();
+            long count = 0;
+            for (int position = from; position < to; position++) {
+                if (table.matches(index.slotAt(position), query)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Version held for the product, or -1 when it is not in the catalog.
+     */
+    long versionOf(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = columns.slotById.get(id);
+            return slot != null ? columns.versions[slot] : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return columns.offHeapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(Consumer<Columns> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(columns);
+            if (buffered != null) {
+                buffered.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ends a rebuild: swaps in the loaded columns after the changes made meanwhile, or just stops buffering
+    private void finishRebuild(Columns loaded) {
+        lock.writeLock().lock();
+        try {
+            if (loaded != null) {
+                buffered.forEach(change -> change.accept(loaded));
+                columns = loaded;
+            }
+            buffered = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Query query(ProductCriteria criteria) {
+        return new Query(
+                criteria.category() != null ? criteria.category().ordinal() : -1,
+                criteria.active() != null ? (criteria.active() ? 1 : 0) : -1,
+                criteria.minPrice() != null
+                        ? criteria.minPrice().movePointRight(2).setScale(0, RoundingMode.CEILING).longValue()
+                        : Long.MIN_VALUE,
+                criteria.maxPrice() != null
+                        ? criteria.maxPrice().movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue()
+                        : Long.MAX_VALUE,
+                criteria.minQuantity() != null ? criteria.minQuantity() : Long.MIN_VALUE,
+                criteria.maxQuantity() != null ? criteria.maxQuantity() : Long.MAX_VALUE);
+    }
+
+    private static long cents(BigDecimal price) {
+        return price != null ? price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+
+    private static long encode(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime decode(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static Range range(SortedIndex index, long min, long max) {
+        int from = index.lowerBound(min);
+        return new Range(index, from, Math.max(from, index.upperBound(max)));
+    }
+
+    /**
+     * One complete copy of the catalog. Guarded by the catalog's lock, except
+     * while a rebuild fills a copy no other thread can see yet.
+     */
+    private static final class Columns {
+
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private final Map<String, Integer> slotBySku = new HashMap<>();
+
+        private long[] ids;
+        private long[] versions;
+        private long[] prices;
+        private int[] quantities;
+        private byte[] categories;
+        private boolean[] active;
+        private long[] createdAt;
+        private long[] updatedAt;
+        private final StringColumn names;
+        private final StringColumn descriptions;
+        private final StringColumn skus;
+        private final SortedIndex byId;
+        private final SortedIndex byPrice;
+        private final SortedIndex byQuantity;
+        private int[] free = new int[16];
+        private int freeCount;
+        private int highWater;
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            versions = new long[capacity];
+            prices = new long[capacity];
+            quantities = new int[capacity];
+            categories = new byte[capacity];
+            active = new boolean[capacity];
+            createdAt = new long[capacity];
+            updatedAt = new long[capacity];
+            names = new StringColumn(capacity, capacity * 24);
+            descriptions = new StringColumn(capacity, capacity * 64);
+            skus = new StringColumn(capacity, capacity * 12);
+            byId = new SortedIndex(capacity);
+            byPrice = new SortedIndex(capacity);
+            byQuantity = new SortedIndex(capacity);
+        }
+
+        int size() {
+            return slotById.size();
+        }
+
+        long offHeapBytes() {
+            return names.offHeapBytes() + descriptions.offHeapBytes() + skus.offHeapBytes();
+        }
+
+        void put(ProductSnapshot product) {
+            long version = product.version() != null ? product.version() : 0;
+            Integer slot = slotById.get(product.id());
+            if (slot != null) {
+                if (versions[slot] >= version) {
+                    return;
+                }
+                unindex(slot);
+            } else {
+                slot = allocate();
+                slotById.put(product.id(), slot);
+                byId.insert(product.id(), slot);
+            }
+            ids[slot] = product.id();
+            versions[slot] = version;
+            prices[slot] = cents(product.price());
+            quantities[slot] = product.quantity() != null ? product.quantity() : 0;
+            categories[slot] = product.category() != null ? (byte) product.category().ordinal() : NO_CATEGORY;
+            active[slot] = Boolean.TRUE.equals(product.active());
+            createdAt[slot] = encode(product.createdAt());
+            updatedAt[slot] = encode(product.updatedAt());
+            names.set(slot, product.name());
+            descriptions.set(slot, product.description());
+            skus.set(slot, product.sku());
+
+            byPrice.insert(prices[slot], slot);
+            byQuantity.insert(quantities[slot], slot);
+            slotBySku.put(product.sku(), slot);
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            unindex(slot);
+            byId.remove(id, slot);
+            names.set(slot, null);
+            descriptions.set(slot, null);
+            skus.set(slot, null);
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, Math.max(16, free.length * 2));
+            }
+            free[freeCount++] = slot;
+        }
+
+        Product materialize(int slot) {
+            Product product = new Product();
+            product.id = ids[slot];
+            product.version = versions[slot];
+            product.name = names.get(slot);
+            product.description = descriptions.get(slot);
+            product.price = BigDecimal.valueOf(prices[slot], 2);
+            product.quantity = quantities[slot];
+            product.sku = skus.get(slot);
+            product.category = categories[slot] != NO_CATEGORY ? CATEGORIES[categories[slot]] : null;
+            product.active = active[slot];
+            product.createdAt = decode(createdAt[slot]);
+            product.updatedAt = decode(updatedAt[slot]);
+            return product;
+        }
+
+        boolean matches(int slot, Query query) {
+            return (query.category() < 0 || categories[slot] == query.category())
+                    && (query.active() < 0 || active[slot] == (query.active() == 1))
+                    && prices[slot] >= query.minPrice() && prices[slot] <= query.maxPrice()
+                    && quantities[slot] >= query.minQuantity() && quantities[slot] <= query.maxQuantity();
+        }
+
+        // The smaller of the price and quantity ranges, if it is selective enough to beat an id-order walk
+        Range narrowest(Query query) {
+            Range best = null;
+            if (query.minPrice() > Long.MIN_VALUE || query.maxPrice() < Long.MAX_VALUE) {
+                best = range(byPrice, query.minPrice(), query.maxPrice());
+            }
+            if (query.minQuantity() > Long.MIN_VALUE || query.maxQuantity() < Long.MAX_VALUE) {
+                Range quantity = range(byQuantity, query.minQuantity(), query.maxQuantity());
+                if (best == null || quantity.size() < best.size()) {
+                    best = quantity;
+                }
+            }
+            return best != null && best.size() * RANGE_SELECTIVITY < byId.size() ? best : null;
+        }
+
+        private void unindex(int slot) {
+            byPrice.remove(prices[slot], slot);
+            byQuantity.remove(quantities[slot], slot);
+            // Only if the SKU still points here: another product may have taken it over since
+            slotBySku.remove(skus.get(slot), slot);
+        }
+
+        private int allocate() {
+            if (freeCount > 0) {
+                return free[--freeCount];
+            }
+            if (highWater == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                active = Arrays.copyOf(active, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                updatedAt = Arrays.copyOf(updatedAt, capacity);
+                names.grow(capacity);
+                descriptions.grow(capacity);
+                skus.grow(capacity);
+            }
+            return highWater++;
+        }
+    }
+}
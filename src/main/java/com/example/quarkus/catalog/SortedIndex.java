@@ -0,0 +1,79 @@
+package com.example.quarkus.catalog;
+
+import java.util.Arrays;
+
+/**
+ * (key, slot) pairs kept sorted in two parallel primitive arrays. Lookups are
+ * binary searches; inserts and removals shift the tail, which for catalog
+ * sizes is a short memory move rather than a rebalancing tree.
+ */
+final class SortedIndex {
+
+    private long[] keys;
+    private int[] slots;
+    private int size;
+
+    SortedIndex(int capacity) {
+        keys = new long[Math.max(capacity, 16)];
+        slots = new int[keys.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int slotAt(int position) {
+        return slots[position];
+    }
+
+    void insert(long key, int slot) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        int position = position(key, slot);
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(slots, position, slots, position + 1, size - position);
+        keys[position] = key;
+        slots[position] = slot;
+        size++;
+    }
+
+    void remove(long key, int slot) {
+        int position = position(key, slot);
+        if (position < size && keys[position] == key && slots[position] == slot) {
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Position of the first pair with a key of at least {@code key}.
+     */
+    int lowerBound(long key) {
+        return position(key, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Position of the first pair with a key greater than {@code key}.
+     */
+    int upperBound(long key) {
+        return key == Long.MAX_VALUE ? size : lowerBound(key + 1);
+    }
+
+    // First position whose pair is not less than (key, slot)
+    private int position(long key, int slot) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key || (keys[middle] == key && slots[middle] < slot)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
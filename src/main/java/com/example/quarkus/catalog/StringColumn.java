@@ -0,0 +1,88 @@
+package com.example.quarkus.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Strings of one column as UTF-8 in a direct buffer, outside the Java heap,
+ * addressed per slot by offset and length. Overwritten values are left in
+ * place until the buffer fills up; it is then compacted into a new buffer,
+ * twice as large if live data takes more than half of it.
+ */
+final class StringColumn {
+
+    private static final long NULL = -1;
+
+    private ByteBuffer data;
+    private long[] refs;
+    private int end;
+
+    StringColumn(int slots, int bytes) {
+        data = ByteBuffer.allocateDirect(Math.max(bytes, 1024));
+        refs = new long[slots];
+        Arrays.fill(refs, NULL);
+    }
+
+    void grow(int slots) {
+        int old = refs.length;
+        refs = Arrays.copyOf(refs, slots);
+        Arrays.fill(refs, old, slots, NULL);
+    }
+
+    void set(int slot, String value) {
+        if (value == null) {
+            refs[slot] = NULL;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        refs[slot] = NULL;
+        if (end + bytes.length > data.capacity()) {
+            compact(bytes.length);
+        }
+        data.put(end, bytes);
+        refs[slot] = ((long) end << 32) | bytes.length;
+        end += bytes.length;
+    }
+
+    String get(int slot) {
+        long ref = refs[slot];
+        if (ref == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) ref];
+        data.get((int) (ref >>> 32), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long offHeapBytes() {
+        return data.capacity();
+    }
+
+    private void compact(int needed) {
+        long live = needed;
+        for (long ref : refs) {
+            if (ref != NULL) {
+                live += (int) ref;
+            }
+        }
+        int capacity = data.capacity();
+        while (live > capacity / 2) {
+            capacity = Math.multiplyExact(capacity, 2);
+        }
+        ByteBuffer compacted = ByteBuffer.allocateDirect(capacity);
+        int position = 0;
+        for (int slot = 0; slot < refs.length; slot++) {
+            long ref = refs[slot];
+            if (ref == NULL) {
+                continue;
+            }
+            int length = (int) ref;
+            compacted.put(position, data, (int) (ref >>> 32), length);
+            refs[slot] = ((long) position << 32) | length;
+            position += length;
+        }
+        data = compacted;
+        end = position;
+    }
+}
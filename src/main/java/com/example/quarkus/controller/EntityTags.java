@@ -0,0 +1,73 @@
+package com.example.quarkus.controller;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.repository.ProductFields;
+import com.example.quarkus.repository.ProductVersion;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Entity tags for product responses.
+ *
+ * A product's tag is strong and derived from its id and version (plus the
+ * selected fields, which change the representation). List tags are weak and
+ * derived from the product generation: any committed change invalidates every
+ * list, and no list changes without one. Unless the writes of other instances
+ * are followed, they also change with every response cache window. Each
+ * negotiated media type and content coding of a list gets its own tag, since
+ * they are different representations.
+ */
+final class EntityTags {
+
+    // List tags of another instance or an earlier run must never match
+    private static final String EPOCH = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    static final EntityTag CATEGORIES = new EntityTag(
+            Integer.toHexString(Arrays.toString(ProductCategory.values()).hashCode()));
+
+    private EntityTags() {
+    }
+
+    static EntityTag of(ProductVersion version, ProductFields fields) {
+        String value = version.id() + "-" + version.version();
+        if (fields != null) {
+            value += "-" + Integer.toHexString(fields.names().hashCode());
+        }
+        return new EntityTag(value);
+    }
+
+    static EntityTag ofList(long generation, long window, MediaType type, String coding) {
+        String value = EPOCH + "-" + generation + "-" + window + "-" + type.getSubtype();
+        if (coding != null) {
+            value += "-" + coding;
+        }
+        return new EntityTag(value, true);
+    }
+
+    /**
+     * Whether {@code If-None-Match} lists the tag (or is {@code *}). Uses the
+     * weak comparison the header calls for, so {@code W/} prefixes are ignored.
+     */
+    static boolean matches(HttpHeaders headers, EntityTag tag) {
+        String ifNoneMatch = headers.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String quoted = "\"" + tag.getValue() + "\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.quarkus.controller;
+
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import com.example.quarkus.stock.LowStockAlert;
+import com.example.quarkus.stock.LowStockIndex;
+
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Server-sent {@link LowStockAlert}s for products crossing the given
+ * threshold, pushed as the stock changes commit. Only crossings after the
+ * subscription are sent: fetch {@code /api/products/low-stock} with the same
+ * threshold first for the current state.
+ */
+@Path("/api/products/low-stock/alerts")
+public class LowStockAlertController {
+
+    @Inject
+    LowStockIndex lowStockIndex;
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<LowStockAlert> alerts(@QueryParam("threshold") @DefaultValue("10") int threshold) {
+        return lowStockIndex.alerts(threshold);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.quarkus.controller;
+
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import com.example.quarkus.outbox.ChangeBroker;
+import com.example.quarkus.outbox.ProductChange;
+
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+
+/**
+ * Live stream of product changes as server-sent events, one JSON
+ * {@link ProductChange} per event, with the change's outbox id as event id.
+ * A client that reconnects with {@code Last-Event-ID} first receives the
+ * changes published since, as long as the outbox still retains them.
+ * Changes of a product arrive in version order; a consumer may see a change
+ * twice and should skip versions it already applied.
+ */
+@Path("/api/products/changes")
+public class ProductChangeController {
+
+    @Inject
+    ChangeBroker changeBroker;
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<OutboundSseEvent> changes(@HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) Long lastEventId,
+            @Context Sse sse) {
+        return changeBroker.subscribe(lastEventId).map(change -> sse.newEventBuilder()
+                .id(Long.toString(change.id()))
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(ProductChange.class, change)
+                .build());
+    }
+}
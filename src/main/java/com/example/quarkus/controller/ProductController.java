@@ -1,14 +1,45 @@
 package com.example.quarkus.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.cache.EncodedResponse;
+import com.example.quarkus.cache.ResponseCache;
 import com.example.quarkus.entity.Product;
 import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.format.ProductFormats;
+import com.example.quarkus.pagination.CursorCodec;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.ProductFields;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductSort;
+import com.example.quarkus.repository.ProductVersion;
+import com.example.quarkus.reservation.ReservationLedger;
+import com.example.quarkus.search.SearchQuery;
+import com.example.quarkus.service.BatchGetRequest;
+import com.example.quarkus.service.BulkMode;
+import com.example.quarkus.service.BulkResult;
+import com.example.quarkus.service.ProductImportService;
 import com.example.quarkus.service.ProductService;
+import com.example.quarkus.service.StockService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.DefaultValue;
@@ -20,64 +51,221 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
 
 @Path("/api/products")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class ProductController {
 
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON_TYPE = MediaType.valueOf(APPLICATION_NDJSON);
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Lists are negotiated on both, whether or not this response was compressed
+    private static final String NEGOTIATED = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
     @Inject
     ProductService productService;
 
+    @Inject
+    ProductImportService productImportService;
+
+    @Inject
+    StockService stockService;
+
+    @Inject
+    ReservationLedger reservationLedger;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    ResponseCache responseCache;
+
+    @ConfigProperty(name = "product.pagination.default-size", defaultValue = "100")
+    int defaultPageSize;
+
+    @ConfigProperty(name = "product.pagination.max-size", defaultValue = "1000")
+    int maxPageSize;
+
+    @ConfigProperty(name = "product.http.categories.max-age", defaultValue = "PT24H")
+    Duration categoriesMaxAge;
+
     @GET
-    public List<Product> getAllProducts(@QueryParam("active") Boolean active) {
-        if (active != null && active) {
-            return productService.getActiveProducts();
-        }
-        return productService.getAllProducts();
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductFormats.APPLICATION_CBOR,
+            ProductFormats.APPLICATION_SMILE })
+    @RunOnVirtualThread
+    public Response getAllProducts(@QueryParam("active") Boolean active,
+            @QueryParam("fields") String fields,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo,
+            @Context HttpHeaders headers) {
+        return list(activeFilter(active), fields, cursor, size, uriInfo, headers);
     }
 
     @GET
     @Path("/{id}")
-    public Product getProductById(@PathParam("id") Long id) {
-        return productService.getProductById(id);
+    @RunOnVirtualThread
+    public Response getProductById(@PathParam("id") Long id, @QueryParam("fields") String fields,
+            @Context HttpHeaders headers) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        EntityTag tag = EntityTags.of(productService.getProductVersion(id), productFields);
+        if (EntityTags.matches(headers, tag)) {
+            return notModified(tag);
+        }
+        if (productFields == null) {
+            Product product = productService.getProductById(id);
+            tag = EntityTags.of(new ProductVersion(product.id, product.version), null);
+            return revalidated(Response.ok(product), tag);
+        }
+        return revalidated(Response.ok(productService.getProductById(id, productFields)), tag);
     }
 
     @GET
     @Path("/sku/{sku}")
-    public Product getProductBySku(@PathParam("sku") String sku) {
-        return productService.getProductBySku(sku);
+    @RunOnVirtualThread
+    public Response getProductBySku(@PathParam("sku") String sku, @QueryParam("fields") String fields,
+            @Context HttpHeaders headers) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        EntityTag tag = EntityTags.of(productService.getProductVersionBySku(sku), productFields);
+        if (EntityTags.matches(headers, tag)) {
+            return notModified(tag);
+        }
+        if (productFields == null) {
+            Product product = productService.getProductBySku(sku);
+            tag = EntityTags.of(new ProductVersion(product.id, product.version), null);
+            return revalidated(Response.ok(product), tag);
+        }
+        return revalidated(Response.ok(productService.getProductBySku(sku, productFields)), tag);
+    }
+
+    @POST
+    @Path("/batch-get")
+    @RunOnVirtualThread
+    public Response batchGet(BatchGetRequest request, @QueryParam("fields") String fields) {
+        if (request == null) {
+            return badRequest("Request body with ids and/or skus is required");
+        }
+        return batchGet(request.ids(), request.skus(), fields);
+    }
+
+    @GET
+    @Path("/batch-get")
+    @RunOnVirtualThread
+    public Response batchGetByQuery(@QueryParam("id") List<Long> ids, @QueryParam("sku") List<String> skus,
+            @QueryParam("fields") String fields) {
+        return batchGet(ids, skus, fields);
     }
 
     @GET
     @Path("/category/{category}")
-    public List<Product> getProductsByCategory(@PathParam("category") ProductCategory category) {
-        return productService.getProductsByCategory(category);
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductFormats.APPLICATION_CBOR,
+            ProductFormats.APPLICATION_SMILE })
+    @RunOnVirtualThread
+    public Response getProductsByCategory(@PathParam("category") ProductCategory category,
+            @QueryParam("fields") String fields,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo,
+            @Context HttpHeaders headers) {
+        return list(ProductFilter.byCategory(category), fields, cursor, size, uriInfo, headers);
     }
 
     @GET
     @Path("/search")
-    public List<Product> searchProducts(@QueryParam("name") String name,
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductFormats.APPLICATION_CBOR,
+            ProductFormats.APPLICATION_SMILE })
+    @RunOnVirtualThread
+    public Response searchProducts(@QueryParam("name") String name,
             @QueryParam("minPrice") BigDecimal minPrice,
-            @QueryParam("maxPrice") BigDecimal maxPrice) {
-        if (name != null && !name.trim().isEmpty()) {
-            return productService.searchProductsByName(name);
+            @QueryParam("maxPrice") BigDecimal maxPrice,
+            @QueryParam("category") ProductCategory category,
+            @QueryParam("minQuantity") Integer minQuantity,
+            @QueryParam("maxQuantity") Integer maxQuantity,
+            @QueryParam("active") Boolean active,
+            @QueryParam("sort") String sort,
+            @QueryParam("fields") String fields,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo,
+            @Context HttpHeaders headers) {
+        ProductSort productSort;
+        ProductFields productFields;
+        try {
+            productSort = ProductSort.parse(sort);
+            productFields = ProductFields.parse(fields);
+            checkRange("price", minPrice, maxPrice);
+            checkRange("quantity", minQuantity, maxQuantity);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
         }
-        if (minPrice != null && maxPrice != null) {
-            return productService.getProductsByPriceRange(minPrice, maxPrice);
+
+        boolean hasText = name != null && !name.isBlank();
+        // Text queries without an explicit sort are ordered by relevance
+        if (hasText && sort == null && productService.isSearchIndexEnabled()) {
+            return rankedSearch(new SearchQuery(name, minPrice, maxPrice, category, minQuantity, maxQuantity, active),
+                    productFields, cursor, size, uriInfo, headers);
         }
-        return productService.getAllProducts();
+
+        ProductFilter filter = ProductFilter.all();
+        if (hasText) {
+            filter = filter.and(productService.nameFilter(name));
+        }
+        if (category != null) {
+            filter = filter.and(ProductFilter.byCategory(category));
+        }
+        if (minPrice != null) {
+            filter = filter.and(ProductFilter.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filter = filter.and(ProductFilter.priceAtMost(maxPrice));
+        }
+        if (minQuantity != null) {
+            filter = filter.and(ProductFilter.quantityAtLeast(minQuantity));
+        }
+        if (maxQuantity != null) {
+            filter = filter.and(ProductFilter.quantityAtMost(maxQuantity));
+        }
+        if (active != null) {
+            filter = filter.and(ProductFilter.byActive(active));
+        }
+        return list(filter, productSort, productFields, cursor, size, uriInfo, headers);
     }
 
     @GET
     @Path("/low-stock")
-    public List<Product> getLowStockProducts(@QueryParam("threshold") @DefaultValue("10") int threshold) {
-        return productService.getLowStockProducts(threshold);
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_NDJSON, ProductFormats.APPLICATION_CBOR,
+            ProductFormats.APPLICATION_SMILE })
+    @RunOnVirtualThread
+    public Response getLowStockProducts(@QueryParam("threshold") @DefaultValue("10") int threshold,
+            @QueryParam("fields") String fields,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo,
+            @Context HttpHeaders headers) {
+        return list(productService.lowStockFilter(threshold), fields, cursor, size, uriInfo, headers);
     }
 
     @POST
+    @RunOnVirtualThread
     public Response createProduct(Product product) {
         try {
             Product createdProduct = productService.createProduct(product);
@@ -88,8 +276,30 @@ public class ProductController {
         }
     }
 
+    /**
+     * Creates and/or updates many products in one call. The body is either a
+     * JSON array or an NDJSON stream; it is read lazily and written in chunks.
+     */
+    @POST
+    @Path("/bulk")
+    @Consumes({ MediaType.APPLICATION_JSON, APPLICATION_NDJSON })
+    @RunOnVirtualThread
+    public Response bulkImport(@QueryParam("mode") @DefaultValue("UPSERT") BulkMode mode,
+            @QueryParam("report") @DefaultValue("all") String report,
+            InputStream body) throws IOException {
+        try (MappingIterator<Product> products = objectMapper.readerFor(Product.class).readValues(body)) {
+            BulkResult result = productImportService.importProducts(products, mode, !"failures".equals(report));
+            Response.Status status = result.error == null ? Response.Status.OK : Response.Status.BAD_REQUEST;
+            return Response.status(status).entity(result).build();
+        } catch (JsonProcessingException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Malformed request body: " + e.getOriginalMessage())).build();
+        }
+    }
+
     @PUT
     @Path("/{id}")
+    @RunOnVirtualThread
     public Response updateProduct(@PathParam("id") Long id, Product product) {
         try {
             Product updatedProduct = productService.updateProduct(id, product);
@@ -97,6 +307,9 @@ public class ProductController {
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(Map.of("error", e.getMessage())).build();
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(Map.of("error", e.getMessage())).build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", e.getMessage())).build();
@@ -105,6 +318,7 @@ public class ProductController {
 
     @DELETE
     @Path("/{id}")
+    @RunOnVirtualThread
     public Response deleteProduct(@PathParam("id") Long id) {
         try {
             productService.deleteProduct(id);
@@ -117,6 +331,7 @@ public class ProductController {
 
     @PUT
     @Path("/{id}/deactivate")
+    @RunOnVirtualThread
     public Response deactivateProduct(@PathParam("id") Long id) {
         try {
             productService.deactivateProduct(id);
@@ -124,11 +339,15 @@ public class ProductController {
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(Map.of("error", e.getMessage())).build();
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(Map.of("error", e.getMessage())).build();
         }
     }
 
     @PUT
     @Path("/{id}/activate")
+    @RunOnVirtualThread
     public Response activateProduct(@PathParam("id") Long id) {
         try {
             productService.activateProduct(id);
@@ -136,11 +355,15 @@ public class ProductController {
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(Map.of("error", e.getMessage())).build();
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(Map.of("error", e.getMessage())).build();
         }
     }
 
     @PUT
     @Path("/{id}/stock")
+    @RunOnVirtualThread
     public Response updateStock(@PathParam("id") Long id, Map<String, Integer> stockUpdate) {
         try {
             Integer quantity = stockUpdate.get("quantity");
@@ -153,11 +376,15 @@ public class ProductController {
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(Map.of("error", e.getMessage())).build();
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(Map.of("error", e.getMessage())).build();
         }
     }
 
     @PUT
     @Path("/{id}/stock/adjust")
+    @RunOnVirtualThread
     public Response adjustStock(@PathParam("id") Long id, Map<String, Integer> stockAdjustment) {
         try {
             Integer adjustment = stockAdjustment.get("adjustment");
@@ -165,6 +392,9 @@ public class ProductController {
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(Map.of("error", "Adjustment is required")).build();
             }
+            if (stockService.isCoalesced()) {
+                return Response.accepted(stockService.enqueue(id, adjustment)).build();
+            }
             Product updatedProduct = productService.adjustStock(id, adjustment);
             return Response.ok(updatedProduct).build();
         } catch (NotFoundException e) {
@@ -176,17 +406,278 @@ public class ProductController {
         }
     }
 
+    @GET
+    @Path("/{id}/availability")
+    @RunOnVirtualThread
+    public Response getAvailability(@PathParam("id") Long id) {
+        try {
+            return Response.ok(reservationLedger.availability(id)).build();
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(Map.of("error", e.getMessage())).build();
+        }
+    }
+
     @GET
     @Path("/stats")
+    @RunOnVirtualThread
     public Response getProductStats() {
-        return Response.ok(Map.of(
-                "totalProducts", productService.getProductCount(),
-                "activeProducts", productService.getActiveProductCount())).build();
+        return Response.ok(productService.getProductStats()).build();
     }
 
     @GET
     @Path("/categories")
-    public ProductCategory[] getCategories() {
-        return ProductCategory.values();
+    @RunOnVirtualThread
+    public Response getCategories(@Context HttpHeaders headers) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge((int) categoriesMaxAge.toSeconds());
+        if (EntityTags.matches(headers, EntityTags.CATEGORIES)) {
+            return Response.notModified(EntityTags.CATEGORIES)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        // Categories are an enum: they only change with a new release
+        EncodedResponse categories = responseCache.constant("categories", ProductCategory::values);
+        return encoded(categories, MediaType.APPLICATION_JSON_TYPE, headers)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .tag(EntityTags.CATEGORIES)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    private ProductFilter activeFilter(Boolean active) {
+        return active != null && active ? ProductFilter.active() : ProductFilter.all();
+    }
+
+    private static <T extends Comparable<T>> void checkRange(String name, T min, T max) {
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("Minimum " + name + " must not be greater than maximum " + name);
+        }
+    }
+
+    private Response list(ProductFilter filter, String fields, String cursor, Integer size, UriInfo uriInfo,
+            HttpHeaders headers) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        return list(filter, ProductSort.ID, productFields, cursor, size, uriInfo, headers);
+    }
+
+    private Response list(ProductFilter filter, ProductSort sort, ProductFields fields, String cursor, Integer size,
+            UriInfo uriInfo, HttpHeaders headers) {
+        if (acceptsNdjson(headers)) {
+            return stream(filter, sort, fields, cursor);
+        }
+        // Read before the page so the tag can only be older than the body, never newer
+        long generation = productService.getProductGeneration();
+        MediaType type = ProductFormats.negotiate(headers);
+        EntityTag tag = EntityTags.ofList(generation, responseCache.window(), type, contentCoding(headers));
+        if (EntityTags.matches(headers, tag)) {
+            return revalidated(negotiated(Response.notModified()), tag);
+        }
+        if (!responseCache.isEnabled()) {
+            return page(filter, sort, fields, cursor, size, uriInfo, tag, type);
+        }
+
+        EncodedResponse page;
+        try {
+            page = responseCache.get(cacheKey(uriInfo, type), generation, () -> {
+                Page<?> loaded = loadPage(filter, sort, fields, cursor, size);
+                return responseCache.encode(loaded.items(), loaded.hasNext() ? loaded.nextCursor() : null, type);
+            });
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        Response.ResponseBuilder response = negotiated(encoded(page, type, headers));
+        if (page.nextCursor() != null) {
+            nextPage(response, page.nextCursor(), uriInfo);
+        }
+        return revalidated(response, tag);
+    }
+
+    // Path plus query parameters in a fixed order, so equivalent URIs share an entry
+    private static String cacheKey(UriInfo uriInfo, MediaType type) {
+        StringBuilder key = new StringBuilder(type.getSubtype()).append(' ').append(uriInfo.getPath());
+        new TreeMap<>(uriInfo.getQueryParameters()).forEach((name, values) -> key.append('&').append(name)
+                .append('=').append(values));
+        return key.toString();
+    }
+
+    private static Response.ResponseBuilder encoded(EncodedResponse encoded, MediaType type, HttpHeaders headers) {
+        if (encoded.gzipped() == null) {
+            return Response.ok(encoded.body(), type);
+        }
+        return acceptsGzip(headers)
+                ? Response.ok(encoded.gzipped(), type).encoding("gzip")
+                : Response.ok(encoded.body(), type);
+    }
+
+    private static Response.ResponseBuilder negotiated(Response.ResponseBuilder response) {
+        return response.header(HttpHeaders.VARY, NEGOTIATED);
+    }
+
+    // The coding a list is sent with: gzip from the response cache or the HTTP server, else deflate from the server
+    private static String contentCoding(HttpHeaders headers) {
+        if (acceptsGzip(headers)) {
+            return "gzip";
+        }
+        return accepts(headers, "deflate") ? "deflate" : null;
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        return accepts(headers, "gzip");
+    }
+
+    private static boolean accepts(HttpHeaders headers, String name) {
+        String acceptEncoding = headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(name)) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // NDJSON is opt-in: only clients that explicitly accept it get the stream
+    private boolean acceptsNdjson(HttpHeaders headers) {
+        return headers.getAcceptableMediaTypes().stream()
+                .anyMatch(type -> APPLICATION_NDJSON_TYPE.getSubtype().equalsIgnoreCase(type.getSubtype()));
+    }
+
+    private Response page(ProductFilter filter, ProductSort sort, ProductFields fields, String cursor, Integer size,
+            UriInfo uriInfo, EntityTag tag, MediaType type) {
+        Page<?> page;
+        try {
+            page = loadPage(filter, sort, fields, cursor, size);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        return pageResponse(page, uriInfo, tag, type);
+    }
+
+    private Page<?> loadPage(ProductFilter filter, ProductSort sort, ProductFields fields, String cursor,
+            Integer size) {
+        PageRequest pageRequest = PageRequest.of(cursor, size != null ? size : defaultPageSize, maxPageSize);
+        return fields == null
+                ? productService.getProducts(filter, sort, pageRequest)
+                : productService.getProducts(filter, sort, pageRequest, fields);
+    }
+
+    // Ranked results page by offset instead of by id
+    private Response rankedSearch(SearchQuery query, ProductFields fields, String cursor, Integer size,
+            UriInfo uriInfo, HttpHeaders headers) {
+        int offset;
+        int pageSize = size != null ? size : defaultPageSize;
+        try {
+            offset = CursorCodec.decodeOffset(cursor);
+            if (pageSize < 1 || pageSize > maxPageSize) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+            }
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        BiFunction<Integer, Integer, Page<?>> search = (from, count) -> fields == null
+                ? productService.searchProducts(query, from, count)
+                : productService.searchProducts(query, from, count, fields);
+
+        if (acceptsNdjson(headers)) {
+            StreamingOutput body = output -> {
+                int next = offset;
+                Page<?> page;
+                do {
+                    page = search.apply(next, maxPageSize);
+                    page.items().forEach(row -> writeLine(output, row));
+                    next += maxPageSize;
+                } while (page.hasNext());
+            };
+            return negotiated(Response.ok(body, APPLICATION_NDJSON)).build();
+        }
+        MediaType type = ProductFormats.negotiate(headers);
+        EntityTag tag = EntityTags.ofList(productService.getProductGeneration(), responseCache.window(), type,
+                contentCoding(headers));
+        if (EntityTags.matches(headers, tag)) {
+            return revalidated(negotiated(Response.notModified()), tag);
+        }
+        return pageResponse(search.apply(offset, pageSize), uriInfo, tag, type);
+    }
+
+    private Response pageResponse(Page<?> page, UriInfo uriInfo, EntityTag tag, MediaType type) {
+        Response.ResponseBuilder response = negotiated(Response.ok(page.items(), type));
+        if (page.hasNext()) {
+            nextPage(response, page.nextCursor(), uriInfo);
+        }
+        return revalidated(response, tag);
+    }
+
+    private static void nextPage(Response.ResponseBuilder response, String cursor, UriInfo uriInfo) {
+        response.header(NEXT_CURSOR_HEADER, cursor)
+                .link(uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", cursor).build(), "next");
+    }
+
+    // Cacheable, but every reuse has to be revalidated with the entity tag
+    private static Response revalidated(Response.ResponseBuilder response, EntityTag tag) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        return response.tag(tag).cacheControl(cacheControl).build();
+    }
+
+    private static Response notModified(EntityTag tag) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        return Response.notModified(tag).cacheControl(cacheControl).build();
+    }
+
+    private Response stream(ProductFilter filter, ProductSort sort, ProductFields fields, String cursor) {
+        CursorCodec.Position position;
+        try {
+            position = CursorCodec.decodePosition(cursor);
+            if (position != null) {
+                // Fail now: once streaming has started the status can no longer change
+                sort.parseKey(position.lastKey());
+            }
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        Long afterId = position != null ? position.lastId() : null;
+        String afterKey = position != null ? position.lastKey() : null;
+        StreamingOutput body = fields == null
+                ? output -> productService.streamProducts(filter, sort, afterId, afterKey,
+                        product -> writeLine(output, product))
+                : output -> productService.streamProducts(filter, sort, afterId, afterKey, fields,
+                        row -> writeLine(output, row));
+        return negotiated(Response.ok(body, APPLICATION_NDJSON)).build();
+    }
+
+    private Response batchGet(List<Long> ids, List<String> skus, String fields) {
+        try {
+            return Response.ok(productService.batchGet(ids, skus, ProductFields.parse(fields))).build();
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    private Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", message)).build();
+    }
+
+    private void writeLine(OutputStream output, Object row) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(row));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,84 @@
+package com.example.quarkus.controller;
+
+import java.util.Map;
+
+import com.example.quarkus.reservation.Reservation;
+import com.example.quarkus.reservation.ReservationRequest;
+import com.example.quarkus.reservation.ReservationService;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/api/reservations")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ReservationController {
+
+    @Inject
+    ReservationService reservationService;
+
+    @POST
+    @RunOnVirtualThread
+    public Response reserve(ReservationRequest request) {
+        try {
+            Reservation reservation = reservationService.reserve(request);
+            return Response.status(Response.Status.CREATED).entity(reservation).build();
+        } catch (NotFoundException e) {
+            return error(Response.Status.NOT_FOUND, e);
+        } catch (IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, e);
+        } catch (IllegalStateException e) {
+            return error(Response.Status.CONFLICT, e);
+        }
+    }
+
+    @GET
+    @Path("/{id}")
+    @RunOnVirtualThread
+    public Response getReservation(@PathParam("id") String id) {
+        try {
+            return Response.ok(reservationService.find(id)).build();
+        } catch (NotFoundException e) {
+            return error(Response.Status.NOT_FOUND, e);
+        }
+    }
+
+    @POST
+    @Path("/{id}/commit")
+    @RunOnVirtualThread
+    public Response commit(@PathParam("id") String id) {
+        try {
+            return Response.ok(reservationService.commit(id)).build();
+        } catch (NotFoundException e) {
+            return error(Response.Status.NOT_FOUND, e);
+        } catch (IllegalStateException e) {
+            return error(Response.Status.CONFLICT, e);
+        }
+    }
+
+    @POST
+    @Path("/{id}/release")
+    @RunOnVirtualThread
+    public Response release(@PathParam("id") String id) {
+        try {
+            return Response.ok(reservationService.release(id)).build();
+        } catch (NotFoundException e) {
+            return error(Response.Status.NOT_FOUND, e);
+        } catch (IllegalStateException e) {
+            return error(Response.Status.CONFLICT, e);
+        }
+    }
+
+    private static Response error(Response.Status status, RuntimeException e) {
+        return Response.status(status).entity(Map.of("error", e.getMessage())).build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.quarkus.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Marks queries that may be served by the read replica. The datasource is
+ * chosen when the Hibernate session opens, so this only takes effect for the
+ * first call that opens one outside a transaction; inside a transaction every
+ * query goes to the primary. See {@link ReplicaRouter}.
+ */
+@InterceptorBinding
+@Inherited
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
@@ -0,0 +1,30 @@
+package com.example.quarkus.datasource;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+@ReadOnly
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class ReadOnlyInterceptor {
+
+    // Depth of nested @ReadOnly calls on this thread
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    static boolean active() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    @AroundInvoke
+    Object readOnly(InvocationContext context) throws Exception {
+        int[] depth = DEPTH.get();
+        depth[0]++;
+        try {
+            return context.proceed();
+        } finally {
+            depth[0]--;
+        }
+    }
+}
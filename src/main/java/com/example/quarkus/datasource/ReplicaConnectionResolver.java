@@ -0,0 +1,32 @@
+package com.example.quarkus.datasource;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.customized.QuarkusConnectionProvider;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantConnectionResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@PersistenceUnitExtension
+@ApplicationScoped
+public class ReplicaConnectionResolver implements TenantConnectionResolver {
+
+    @Inject
+    AgroalDataSource primary;
+
+    @Inject
+    @DataSource(ReplicaRouter.REPLICA)
+    AgroalDataSource replica;
+
+    @Override
+    public ConnectionProvider resolve(String tenantId) {
+        return switch (tenantId) {
+            case ReplicaRouter.PRIMARY -> new QuarkusConnectionProvider(primary);
+            case ReplicaRouter.REPLICA -> new QuarkusConnectionProvider(replica);
+            default -> throw new IllegalArgumentException("Unknown datasource: " + tenantId);
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.quarkus.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.event.ProductChangedEvent;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.TransactionManager;
+
+/**
+ * Sends {@link ReadOnly} queries outside a transaction to the replica, and
+ * everything else to the primary.
+ *
+ * Replication progress is sampled on an interval: the primary's WAL position
+ * is recorded, then compared with the position the replica has replayed. Once
+ * the replica passes a sample, it holds every write committed before that
+ * sample was taken. Reads fall back to the primary while the replica cannot
+ * be reached, is more than {@code product.replica.max-lag} behind, or (with
+ * {@code product.replica.read-your-writes}) has not caught up with the last
+ * write committed by this instance.
+ */
+@ApplicationScoped
+public class ReplicaRouter {
+
+    private static final Logger LOG = Logger.getLogger(ReplicaRouter.class);
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final String PRIMARY_POSITION = "select pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')";
+    // A replica URL pointing at a primary reports that primary's own position
+    private static final String REPLAYED_POSITION =
+            "select pg_wal_lsn_diff(coalesce(pg_last_wal_replay_lsn(), pg_current_wal_lsn()), '0/0')";
+    private static final int MAX_SAMPLES = 64;
+
+    @Inject
+    TransactionManager transactionManager;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    AgroalDataSource primary;
+
+    @Inject
+    @DataSource(REPLICA)
+    AgroalDataSource replica;
+
+    @ConfigProperty(name = "product.replica.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.replica.max-lag", defaultValue = "5s")
+    Duration maxLag;
+
+    @ConfigProperty(name = "product.replica.read-your-writes", defaultValue = "true")
+    boolean readYourWrites;
+
+    // Off for a replica that is the primary database itself (tests, local runs)
+    @ConfigProperty(name = "product.replica.track-lag", defaultValue = "true")
+    boolean trackLag;
+
+    // (sampled at, primary position) pairs not yet replayed, oldest first; only touched by checkLag()
+    private final Deque<long[]> samples = new ArrayDeque<>();
+    private final Map<String, Counter> routes = new ConcurrentHashMap<>();
+
+    private volatile boolean available;
+    private volatile long caughtUpAt;
+    private volatile long lagBytes;
+    private volatile long lastWriteAt;
+
+    @PostConstruct
+    void init() {
+        lastWriteAt = System.nanoTime();
+        caughtUpAt = lastWriteAt - 1;
+        available = !trackLag;
+        registry.gauge("product.datasource.replica.available", this, router -> router.available ? 1 : 0);
+        registry.gauge("product.datasource.replica.lag.bytes", this, router -> router.lagBytes);
+        registry.gauge("product.datasource.replica.staleness.seconds", this, ReplicaRouter::stalenessSeconds);
+    }
+
+    /**
+     * Datasource for a session opening now. Only sessions opened by a
+     * {@link ReadOnly} call are counted in {@code product.datasource.route}.
+     */
+    String route() {
+        if (!enabled || !ReadOnlyInterceptor.active()) {
+            return PRIMARY;
+        }
+        String fallback = fallbackReason();
+        String target = fallback == null ? REPLICA : PRIMARY;
+        routes.computeIfAbsent(target + '|' + fallback, key -> Counter.builder("product.datasource.route")
+                .tag("target", target)
+                .tag("reason", fallback == null ? "read-only" : fallback)
+                .register(registry)).increment();
+        return target;
+    }
+
+    // Why a read-only session must use the primary, null when the replica will do
+    private String fallbackReason() {
+        if (inTransaction()) {
+            return "transaction";
+        }
+        if (!trackLag) {
+            return null;
+        }
+        if (!available) {
+            return "unavailable";
+        }
+        long caughtUp = caughtUpAt;
+        if (System.nanoTime() - caughtUp > maxLag.toNanos()) {
+            return "lagging";
+        }
+        if (readYourWrites && lastWriteAt - caughtUp >= 0) {
+            return "recent-write";
+        }
+        return null;
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        lastWriteAt = System.nanoTime();
+    }
+
+    @Scheduled(every = "${product.replica.lag-check-interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void checkLag() {
+        if (!enabled || !trackLag) {
+            return;
+        }
+        long sampledAt = System.nanoTime();
+        try {
+            long written = position(primary, PRIMARY_POSITION);
+            samples.addLast(new long[] { sampledAt, written });
+            long replayed = position(replica, REPLAYED_POSITION);
+            lagBytes = Math.max(0, written - replayed);
+
+            // Dropping unreplayed samples only makes the next catch-up later than it really is
+            while (samples.size() > MAX_SAMPLES || (!samples.isEmpty() && samples.peekFirst()[1] <= replayed)) {
+                long[] sample = samples.pollFirst();
+                if (sample[1] <= replayed) {
+                    caughtUpAt = sample[0];
+                }
+            }
+            if (!available) {
+                LOG.infof("Read replica available, %d bytes behind the primary", lagBytes);
+                available = true;
+            }
+        } catch (SQLException e) {
+            samples.clear();
+            if (available) {
+                LOG.warnf("Read replica lag check failed, reading from the primary: %s", e.getMessage());
+                available = false;
+            }
+        }
+    }
+
+    private boolean inTransaction() {
+        try {
+            return transactionManager.getStatus() != Status.STATUS_NO_TRANSACTION;
+        } catch (SystemException e) {
+            return true;
+        }
+    }
+
+    private double stalenessSeconds() {
+        if (!enabled || !trackLag) {
+            return 0;
+        }
+        return (double) Math.max(0, System.nanoTime() - caughtUpAt) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static long position(AgroalDataSource dataSource, String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery(query)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.quarkus.datasource;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Picks the datasource of every new Hibernate session. The two "tenants" are
+ * the primary and the replica, holding the same data; sessions opened without
+ * a request context (startup, shutdown) always use the primary.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class ReplicaTenantResolver implements TenantResolver {
+
+    @Inject
+    ReplicaRouter router;
+
+    @Override
+    public String getDefaultTenantId() {
+        return ReplicaRouter.PRIMARY;
+    }
+
+    @Override
+    public String resolveTenantId() {
+        return router.route();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.quarkus.entity;
+
+import java.time.LocalDateTime;
+
+import com.example.quarkus.event.ProductChangedEvent;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * One product change, written in the transaction that made it. Once the
+ * outbox relay has published it, it is kept for
+ * {@code product.outbox.retention} so change stream subscribers can resume.
+ */
+@Entity
+@Table(name = "product_outbox")
+public class OutboxEvent extends PanacheEntityBase {
+
+    // Pooled like products_seq so the rows of a bulk import are batched too
+    @Id
+    @SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+    public Long id;
+
+    @Column(name = "product_id", nullable = false)
+    public Long productId;
+
+    // Increases with every change of the product, including its deletion
+    @Column(name = "product_version", nullable = false)
+    public Long productVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    public ProductChangedEvent.Type type;
+
+    // The product after the change (before it, for deletions) as JSON
+    @Column(name = "payload", nullable = false, length = 2000)
+    public String payload;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    // Null until every sink has taken the change
+    @Column(name = "published_at")
+    public LocalDateTime publishedAt;
+
+    // Position in the batch it was published in, which replays follow
+    @Column(name = "published_order")
+    public Integer publishedOrder;
+}
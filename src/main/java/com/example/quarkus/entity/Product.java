@@ -4,14 +4,23 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import com.example.quarkus.monitoring.EntityLoadListener;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
@@ -20,8 +29,17 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@Cacheable
 @Table(name = "products")
-public class Product extends PanacheEntity {
+@EntityListeners(EntityLoadListener.class)
+public class Product extends PanacheEntityBase {
+
+    // Pooled allocation: one sequence call hands out a block of ids, so batched
+    // inserts do not pay a round trip per row. Must match INCREMENT in schema.sql.
+    @Id
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    public Long id;
 
     @NotBlank(message = "Product name is required")
     @Size(min = 2, max = 100, message = "Product name must be between 2 and 100 characters")
@@ -61,6 +79,12 @@ public class Product extends PanacheEntity {
     @Column(name = "updated_at")
     public LocalDateTime updatedAt;
 
+    // Optimistic lock for read-modify-write updates; atomic stock updates in
+    // ProductRepository bump it explicitly
+    @Version
+    @Column(name = "version", nullable = false)
+    public Long version;
+
     // Default constructor
     public Product() {
     }
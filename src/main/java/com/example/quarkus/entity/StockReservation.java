@@ -0,0 +1,56 @@
+package com.example.quarkus.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * One line of the append-only reservation log: a reservation item entering
+ * a state. Rows are never updated; the latest row of a reservation is its
+ * current state.
+ */
+@Entity
+@Table(name = "stock_reservations")
+public class StockReservation extends PanacheEntityBase {
+
+    public enum Status {
+        HELD,
+        COMMITTED,
+        RELEASED,
+        EXPIRED
+    }
+
+    @Id
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq",
+            allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    public Long id;
+
+    @Column(name = "reservation_id", nullable = false, length = 36)
+    public String reservationId;
+
+    @Column(name = "product_id", nullable = false)
+    public Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    public Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    public Status status;
+
+    @Column(name = "expires_at", nullable = false)
+    public LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.example.quarkus.event;
+
+/**
+ * Fired by {@code ProductService} for every write. {@code before} is null for
+ * creations and {@code after} is null for deletions.
+ */
+public record ProductChangedEvent(Type type, ProductSnapshot before, ProductSnapshot after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ACTIVATED,
+        DEACTIVATED,
+        STOCK_CHANGED
+    }
+
+    public static ProductChangedEvent created(ProductSnapshot after) {
+        return new ProductChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static ProductChangedEvent deleted(ProductSnapshot before) {
+        return new ProductChangedEvent(Type.DELETED, before, null);
+    }
+
+    public Long productId() {
+        return after != null ? after.id() : before.id();
+    }
+}
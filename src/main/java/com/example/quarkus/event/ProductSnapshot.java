@@ -0,0 +1,36 @@
+package com.example.quarkus.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+
+/**
+ * Immutable copy of a {@link Product}'s state, safe to hand to observers that
+ * run after the transaction (and the persistence context) is gone.
+ */
+public record ProductSnapshot(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer quantity,
+        String sku,
+        ProductCategory category,
+        Boolean active,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.id, product.name, product.description, product.price,
+                product.quantity, product.sku, product.category, product.active,
+                product.createdAt, product.updatedAt, product.version);
+    }
+
+    public ProductSnapshot withQuantity(Integer quantity) {
+        return new ProductSnapshot(id, name, description, price, quantity, sku, category, active,
+                createdAt, updatedAt, version);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.quarkus.format;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes response entities as CBOR or Smile, see {@link ProductFormats}.
+ */
+@Provider
+@Produces({ ProductFormats.APPLICATION_CBOR, ProductFormats.APPLICATION_SMILE })
+public class BinaryJsonWriter implements MessageBodyWriter<Object> {
+
+    @Inject
+    ProductFormats formats;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        // Byte arrays are already encoded (see ResponseCache)
+        return type != byte[].class && (ProductFormats.APPLICATION_CBOR_TYPE.isCompatible(mediaType)
+                || ProductFormats.APPLICATION_SMILE_TYPE.isCompatible(mediaType));
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        entityStream.write(formats.mapper(mediaType).writeValueAsBytes(entity));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.quarkus.format;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * The representations product lists are offered in. CBOR and Smile are binary
+ * encodings of the JSON data model, written by copies of the application's
+ * ObjectMapper so they carry the same fields, names and date formats as JSON
+ * while being smaller and cheaper to encode.
+ */
+@ApplicationScoped
+public class ProductFormats {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE_TYPE = MediaType.valueOf(APPLICATION_SMILE);
+
+    private static final List<MediaType> OFFERED = List.of(MediaType.APPLICATION_JSON_TYPE, APPLICATION_CBOR_TYPE,
+            APPLICATION_SMILE_TYPE);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    @PostConstruct
+    void init() {
+        cbor = objectMapper.copyWith(new CBORFactory());
+        smile = objectMapper.copyWith(new SmileFactory());
+    }
+
+    public ObjectMapper mapper(MediaType type) {
+        if (APPLICATION_CBOR_TYPE.isCompatible(type)) {
+            return cbor;
+        }
+        if (APPLICATION_SMILE_TYPE.isCompatible(type)) {
+            return smile;
+        }
+        return objectMapper;
+    }
+
+    /**
+     * The offered type the client prefers, by the order (and quality) of its
+     * {@code Accept} header. Wildcards and anything unknown get JSON.
+     */
+    public static MediaType negotiate(HttpHeaders headers) {
+        for (MediaType acceptable : headers.getAcceptableMediaTypes()) {
+            if (acceptable.isWildcardType() || acceptable.isWildcardSubtype()) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+            for (MediaType offered : OFFERED) {
+                if (offered.isCompatible(acceptable)) {
+                    return offered;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+}
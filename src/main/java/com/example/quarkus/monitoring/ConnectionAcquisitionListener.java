@@ -0,0 +1,26 @@
+package com.example.quarkus.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+import io.quarkus.arc.Arc;
+
+/**
+ * Hibernate session listener timing how long each session waits for a JDBC
+ * connection from the pool. Created by Hibernate for every session, see
+ * {@code hibernate.session.events.auto} in application.properties.
+ */
+public class ConnectionAcquisitionListener extends BaseSessionEventListener {
+
+    private final PersistenceMetrics metrics = Arc.container().instance(PersistenceMetrics.class).get();
+    private long start;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        metrics.recordConnectionAcquisition(System.nanoTime() - start);
+    }
+}
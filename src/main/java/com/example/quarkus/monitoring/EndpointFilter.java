@@ -0,0 +1,19 @@
+package com.example.quarkus.monitoring;
+
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+import jakarta.inject.Inject;
+
+public class EndpointFilter {
+
+    @Inject
+    RequestEndpoint endpoint;
+
+    @ServerRequestFilter
+    void match(SimpleResourceInfo resource) {
+        if (resource.getResourceClass() != null) {
+            endpoint.name(resource.getResourceClass().getSimpleName() + "." + resource.getMethodName());
+        }
+    }
+}
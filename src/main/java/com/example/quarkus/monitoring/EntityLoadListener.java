@@ -0,0 +1,21 @@
+package com.example.quarkus.monitoring;
+
+import jakarta.persistence.PostLoad;
+
+/**
+ * Counts entities hydrated from JDBC rows, per thread. Callers take the
+ * difference of {@link #loads()} before and after a unit of work.
+ */
+public class EntityLoadListener {
+
+    private static final ThreadLocal<long[]> LOADS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @PostLoad
+    void loaded(Object entity) {
+        LOADS.get()[0]++;
+    }
+
+    static long loads() {
+        return LOADS.get()[0];
+    }
+}
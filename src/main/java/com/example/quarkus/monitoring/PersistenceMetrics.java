@@ -0,0 +1,141 @@
+package com.example.quarkus.monitoring;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.Arc;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.RollbackException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+import jakarta.transaction.TransactionScoped;
+
+/**
+ * Persistence timings tagged with the endpoint that caused them ("none"
+ * outside HTTP requests, e.g. for startup and scheduled jobs):
+ *
+ * <ul>
+ * <li>{@code product.repository.query}, {@code .rows},
+ * {@code .entities.loaded}: per repository method, see
+ * {@link RepositoryMetricsInterceptor}</li>
+ * <li>{@code product.transaction}: begin to completion, tagged with the
+ * outcome</li>
+ * <li>{@code product.jdbc.connection.acquire}: wait for a pooled connection,
+ * see {@link ConnectionAcquisitionListener}</li>
+ * </ul>
+ *
+ * Timers publish percentile histograms. Repository calls slower than
+ * {@code product.metrics.slow-query-threshold-ms} are logged with their
+ * arguments.
+ */
+@ApplicationScoped
+public class PersistenceMetrics {
+
+    private static final Logger LOG = Logger.getLogger(PersistenceMetrics.class);
+
+    static final String NO_ENDPOINT = "none";
+    private static final int MAX_LOGGED_ARGUMENTS = 200;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    RequestEndpoint requestEndpoint;
+
+    @Inject
+    TransactionManager transactionManager;
+
+    @ConfigProperty(name = "product.metrics.slow-query-threshold-ms", defaultValue = "200")
+    long slowQueryThresholdMs;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    void recordQuery(String method, long nanos, long rows, long entitiesLoaded, Supplier<String> arguments) {
+        String endpoint = endpoint();
+        timer("product.repository.query", "method", method, endpoint).record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            summary("product.repository.rows", method, endpoint).record(rows);
+        }
+        summary("product.repository.entities.loaded", method, endpoint).record(entitiesLoaded);
+
+        if (TimeUnit.NANOSECONDS.toMillis(nanos) >= slowQueryThresholdMs) {
+            String logged = arguments.get();
+            if (logged.length() > MAX_LOGGED_ARGUMENTS) {
+                logged = logged.substring(0, MAX_LOGGED_ARGUMENTS) + "...";
+            }
+            LOG.warnf("Slow query %s%s from %s took %d ms (%s rows, %d entities loaded)", method, logged, endpoint,
+                    TimeUnit.NANOSECONDS.toMillis(nanos), rows >= 0 ? rows : "n/a", entitiesLoaded);
+        }
+    }
+
+    void recordConnectionAcquisition(long nanos) {
+        timer("product.jdbc.connection.acquire", null, null, endpoint()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void onTransactionBegin(@Observes @Initialized(TransactionScoped.class) Object event) throws SystemException {
+        Transaction transaction = transactionManager.getTransaction();
+        if (transaction == null) {
+            return;
+        }
+        String endpoint = endpoint();
+        long start = System.nanoTime();
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    String outcome = status == Status.STATUS_COMMITTED ? "committed" : "rolled_back";
+                    timer("product.transaction", "outcome", outcome, endpoint)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RollbackException | IllegalStateException e) {
+            // Already marked for rollback or completing: nothing left to time
+        }
+    }
+
+    private String endpoint() {
+        if (!Arc.container().requestContext().isActive()) {
+            return NO_ENDPOINT;
+        }
+        String name = requestEndpoint.name();
+        return name != null ? name : NO_ENDPOINT;
+    }
+
+    private Timer timer(String name, String tag, String value, String endpoint) {
+        return timers.computeIfAbsent(name + '|' + value + '|' + endpoint, key -> {
+            Timer.Builder builder = Timer.builder(name)
+                    .tag("endpoint", endpoint)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofSeconds(30));
+            return (tag != null ? builder.tag(tag, value) : builder).register(registry);
+        });
+    }
+
+    private DistributionSummary summary(String name, String method, String endpoint) {
+        return summaries.computeIfAbsent(name + '|' + method + '|' + endpoint,
+                key -> DistributionSummary.builder(name)
+                        .tag("method", method)
+                        .tag("endpoint", endpoint)
+                        .register(registry));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.quarkus.monitoring;
+
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.graalvm.nativeimage.ImageInfo;
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event, which the JVM emits
+ * when a virtual thread blocks while pinned to its carrier (inside a
+ * {@code synchronized} block or a native frame). Every event is counted in
+ * {@code jvm.threads.virtual.pinned} and logged with the first application
+ * frame of its stack, so a regression in the request path shows up in both
+ * the metrics and the logs.
+ *
+ * The event only exists on Java 21+; on older runtimes and in native
+ * executables the monitor stays off.
+ */
+@ApplicationScoped
+public class PinnedThreadMonitor {
+
+    private static final Logger LOG = Logger.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.example.quarkus.";
+    private static final int MAX_RECENT = 100;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.virtual-threads.pinning-monitor.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.virtual-threads.pinning-monitor.threshold", defaultValue = "20ms")
+    Duration threshold;
+
+    private final Deque<PinnedEvent> recent = new ConcurrentLinkedDeque<>();
+    private Counter pinned;
+    private RecordingStream stream;
+
+    /**
+     * One pinned interval. {@code synchronizedFrame} is the innermost
+     * synchronized method on the stack (the likely monitor holder; pinning in
+     * synchronized blocks leaves it null) and {@code applicationFrame} the
+     * innermost frame of this application.
+     */
+    public record PinnedEvent(String thread, Duration duration, String topFrame, String synchronizedFrame,
+            String applicationFrame) {
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            LOG.warnf("Virtual thread pinning monitor requires Java 21+, running on %s", Runtime.version());
+            return;
+        }
+        if (ImageInfo.inImageRuntimeCode()) {
+            LOG.warn("Virtual thread pinning monitor is not supported in native executables");
+            return;
+        }
+        pinned = registry.counter("jvm.threads.virtual.pinned");
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        LOG.infof("Monitoring virtual thread pinning longer than %d ms", threshold.toMillis());
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public long count() {
+        return pinned != null ? (long) pinned.count() : 0;
+    }
+
+    /**
+     * The most recent pinned events, oldest first.
+     */
+    public List<PinnedEvent> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    private void record(RecordedEvent event) {
+        String topFrame = null;
+        String synchronizedFrame = null;
+        String applicationFrame = null;
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                RecordedMethod method = frame.getMethod();
+                String location = method.getType().getName() + "." + method.getName() + ":" + frame.getLineNumber();
+                if (topFrame == null) {
+                    topFrame = location;
+                }
+                if (synchronizedFrame == null && Modifier.isSynchronized(method.getModifiers())) {
+                    synchronizedFrame = location;
+                }
+                if (applicationFrame == null && method.getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                    applicationFrame = location;
+                }
+            }
+        }
+        String thread = event.getThread() != null ? event.getThread().getJavaName() : "unknown";
+        PinnedEvent pinnedEvent = new PinnedEvent(thread, event.getDuration(), topFrame, synchronizedFrame,
+                applicationFrame);
+
+        pinned.increment();
+        recent.addLast(pinnedEvent);
+        while (recent.size() > MAX_RECENT) {
+            recent.pollFirst();
+        }
+        LOG.warnf("Virtual thread %s pinned for %d ms at %s (synchronized: %s, application: %s)", thread,
+                event.getDuration().toMillis(), topFrame, synchronizedFrame, applicationFrame);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.quarkus.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Times every call of the annotated repository and records the rows it
+ * returned and the entities it loaded. See {@link RepositoryMetricsInterceptor}.
+ */
+@InterceptorBinding
+@Inherited
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RepositoryMetrics {
+}
@@ -0,0 +1,62 @@
+package com.example.quarkus.monitoring;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.example.quarkus.pagination.Page;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Records {@code product.repository.query} (duration), {@code .rows} and
+ * {@code .entities.loaded} per repository method and endpoint, and logs calls
+ * slower than the slow-query threshold. Methods returning a {@link Stream}
+ * are timed up to the first row only, since the rest is consumed later.
+ */
+@RepositoryMetrics
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class RepositoryMetricsInterceptor {
+
+    @Inject
+    PersistenceMetrics metrics;
+
+    @AroundInvoke
+    Object measure(InvocationContext context) throws Exception {
+        long loadsBefore = EntityLoadListener.loads();
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = context.proceed();
+            return result;
+        } finally {
+            long duration = System.nanoTime() - start;
+            metrics.recordQuery(context.getMethod().getName(), duration, rows(context.getMethod().getReturnType(),
+                    result), EntityLoadListener.loads() - loadsBefore, () -> Arrays.toString(context.getParameters()));
+        }
+    }
+
+    // -1 when the method does not return rows (counts, updates, streams)
+    private static long rows(Class<?> returnType, Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Page<?> page) {
+            return page.items().size();
+        }
+        if (returnType.isPrimitive() || Number.class.isAssignableFrom(returnType)
+                || Boolean.class.isAssignableFrom(returnType) || Stream.class.isAssignableFrom(returnType)) {
+            return -1;
+        }
+        return result == null ? 0 : 1;
+    }
+}
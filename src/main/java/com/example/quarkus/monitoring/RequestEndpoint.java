@@ -0,0 +1,22 @@
+package com.example.quarkus.monitoring;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * The resource method serving the current request, e.g.
+ * {@code ProductController.getProductById}, used to tag persistence metrics.
+ * Set by {@link EndpointFilter}.
+ */
+@RequestScoped
+public class RequestEndpoint {
+
+    private String name;
+
+    public String name() {
+        return name;
+    }
+
+    void name(String name) {
+        this.name = name;
+    }
+}
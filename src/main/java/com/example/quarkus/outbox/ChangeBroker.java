@@ -0,0 +1,144 @@
+package com.example.quarkus.outbox;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.entity.OutboxEvent;
+import com.example.quarkus.repository.OutboxRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory fan-out of published changes to live subscribers, such as the
+ * server-sent event stream. A live subscriber only sees changes published
+ * after it subscribed, and one that falls more than
+ * {@code product.outbox.subscriber-buffer} changes behind is failed and has
+ * to resynchronize. A subscriber that resumes from the id of the last change
+ * it received first gets the changes published since then from the outbox,
+ * before any live change.
+ */
+@ApplicationScoped
+public class ChangeBroker implements ChangeSink {
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @ConfigProperty(name = "product.outbox.subscriber-buffer", defaultValue = "10000")
+    int subscriberBuffer;
+
+    @ConfigProperty(name = "product.outbox.batch-size", defaultValue = "500")
+    int replayPageSize;
+
+    private final BroadcastProcessor<ProductChange> processor = BroadcastProcessor.create();
+
+    // Where a replay stands; the client's id is only resolved by the first page
+    private static final class ReplayCursor {
+
+        private final Long lastEventId;
+        private OutboxEvent last;
+        private boolean started;
+
+        ReplayCursor(Long lastEventId) {
+            this.lastEventId = lastEventId;
+        }
+    }
+
+    // A change from the live or the replayed stream, or without a change the end of the replay
+    private record Step(ProductChange change, boolean live) {
+    }
+
+    // Holds live changes back while a resumed subscriber's replay runs
+    private final class Resumption {
+
+        private final Set<Long> replayed = new HashSet<>();
+        private List<ProductChange> held = new ArrayList<>();
+
+        List<ProductChange> next(Step step) {
+            if (held == null) {
+                return List.of(step.change());
+            }
+            if (step.change() == null) {
+                List<ProductChange> caughtUp = held.stream()
+                        .filter(change -> !replayed.contains(change.id()))
+                        .toList();
+                held = null;
+                replayed.clear();
+                return caughtUp;
+            }
+            if (!step.live()) {
+                replayed.add(step.change().id());
+                return List.of(step.change());
+            }
+            if (held.size() >= subscriberBuffer) {
+                throw new BackPressureFailure("More than " + subscriberBuffer + " changes published during the replay");
+            }
+            held.add(step.change());
+            return List.of();
+        }
+    }
+
+    public Multi<ProductChange> subscribe() {
+        return processor.onOverflow().buffer(subscriberBuffer);
+    }
+
+    /**
+     * Changes published after the change with outbox id {@code lastEventId}:
+     * those still retained in the outbox, then the live ones. Live changes are
+     * subscribed to first so none falls in between, and held back until the
+     * replay is done, so the changes of a product stay in version order. Live
+     * changes the replay already returned are dropped. An id no longer
+     * retained replays every retained change.
+     */
+    public Multi<ProductChange> subscribe(Long lastEventId) {
+        if (lastEventId == null) {
+            return subscribe();
+        }
+        return Multi.createFrom().deferred(() -> {
+            Resumption resumption = new Resumption();
+            Multi<Step> live = subscribe().map(change -> new Step(change, true));
+            Multi<Step> replay = Multi.createBy().repeating()
+                    .supplier(() -> new ReplayCursor(lastEventId), this::replayPage)
+                    .until(List::isEmpty)
+                    .onItem().<ProductChange>disjoint()
+                    .map(change -> new Step(change, false))
+                    .onCompletion().continueWith(new Step(null, false))
+                    .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+            // The merge hands on one step at a time, so the resumption needs no locking
+            return Multi.createBy().merging().streams(live, replay)
+                    .onItem().transformToIterable(resumption::next);
+        });
+    }
+
+    @Override
+    public void publish(List<ProductChange> changes) {
+        changes.forEach(processor::onNext);
+    }
+
+    private List<ProductChange> replayPage(ReplayCursor cursor) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            if (!cursor.started) {
+                cursor.started = true;
+                cursor.last = outboxRepository.findById(cursor.lastEventId);
+                if (cursor.last != null && cursor.last.publishedAt == null) {
+                    // Seen live from a batch that failed: it is published again, with what follows it
+                    return List.of();
+                }
+            }
+            List<OutboxEvent> page = outboxRepository.findPublishedAfter(cursor.last, replayPageSize);
+            if (!page.isEmpty()) {
+                cursor.last = page.get(page.size() - 1);
+            }
+            return page.stream().map(ProductChange::of).toList();
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.quarkus.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of published product changes. Every {@code ChangeSink} bean
+ * receives each batch, in order; changes of one product always arrive in
+ * version order. A sink returns once it holds the changes durably, or
+ * throws to make the relay retry the whole batch, so delivery is at least
+ * once. Live sinks that keep nothing return right away.
+ */
+public interface ChangeSink {
+
+    void publish(List<ProductChange> changes) throws Exception;
+}
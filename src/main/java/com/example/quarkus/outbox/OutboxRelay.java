@@ -0,0 +1,151 @@
+package com.example.quarkus.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.entity.OutboxEvent;
+import com.example.quarkus.repository.OutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes outbox rows to every {@link ChangeSink} in batches and marks
+ * them published in the same transaction, once every sink has returned. A
+ * failed batch stays unpublished and is retried on the next run. Rows are
+ * taken in id order; within a batch, the changes of each product are put in
+ * version order, since ids drawn from pooled sequences on different
+ * instances need not follow commit order.
+ *
+ * Published rows are kept for {@code product.outbox.retention}, so change
+ * stream subscribers can resume from the last event they received.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+
+    private static final Logger LOG = Logger.getLogger(OutboxRelay.class);
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @Inject
+    @Any
+    Instance<ChangeSink> sinks;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.outbox.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.outbox.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "product.outbox.retention", defaultValue = "PT1H")
+    Duration retention;
+
+    private Counter published;
+    private Counter failures;
+    private Timer lag;
+
+    @PostConstruct
+    void init() {
+        published = registry.counter("product.outbox.published");
+        failures = registry.counter("product.outbox.failures");
+        lag = Timer.builder("product.outbox.lag")
+                .description("Time from a change being written to its publication")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(registry);
+    }
+
+    @Scheduled(every = "${product.outbox.relay-interval:200ms}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Drain what is there now, one transaction per batch
+            int relayed;
+            do {
+                relayed = QuarkusTransaction.requiringNew().call(this::relayBatch);
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            LOG.warnf("Publishing product changes failed, retrying on the next run: %s", e.getMessage());
+        }
+    }
+
+    int relayBatch() throws Exception {
+        List<OutboxEvent> batch = outboxRepository.lockOldest(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<ProductChange> changes = inVersionOrder(batch);
+        for (ChangeSink sink : sinks) {
+            sink.publish(changes);
+        }
+
+        Map<Long, OutboxEvent> events = new HashMap<>();
+        batch.forEach(event -> events.put(event.id, event));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < changes.size(); i++) {
+            OutboxEvent event = events.get(changes.get(i).id());
+            event.publishedAt = now;
+            event.publishedOrder = i;
+            lag.record(Duration.between(event.createdAt, now));
+        }
+        published.increment(changes.size());
+        return batch.size();
+    }
+
+    @Scheduled(every = "${product.outbox.purge-interval:1m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            QuarkusTransaction.requiringNew().call(() -> outboxRepository.deletePublishedBefore(cutoff));
+        } catch (RuntimeException e) {
+            LOG.warnf("Purging published product changes failed, retrying on the next run: %s", e.getMessage());
+        }
+    }
+
+    // Keeps the id order across products, sorting each product's changes among the slots they occupy
+    static List<ProductChange> inVersionOrder(List<OutboxEvent> batch) {
+        Map<Long, List<ProductChange>> byProduct = new HashMap<>();
+        for (OutboxEvent event : batch) {
+            byProduct.computeIfAbsent(event.productId, id -> new ArrayList<>()).add(ProductChange.of(event));
+        }
+        Comparator<ProductChange> byVersion = Comparator.comparingLong(ProductChange::version)
+                .thenComparingLong(ProductChange::id);
+        byProduct.values().forEach(changes -> changes.sort(byVersion));
+
+        Map<Long, Integer> next = new HashMap<>();
+        List<ProductChange> ordered = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            int index = next.merge(event.productId, 1, Integer::sum) - 1;
+            ordered.add(byProduct.get(event.productId).get(index));
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.quarkus.outbox;
+
+import java.time.LocalDateTime;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.entity.OutboxEvent;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Writes an outbox row for every product change, inside the transaction that
+ * made the change: the row commits or rolls back together with it.
+ */
+@ApplicationScoped
+public class OutboxWriter {
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "product.outbox.enabled", defaultValue = "true")
+    boolean enabled;
+
+    void onProductChanged(@Observes ProductChangedEvent event) throws JsonProcessingException {
+        if (!enabled) {
+            return;
+        }
+        ProductSnapshot product = event.after() != null ? event.after() : event.before();
+        long version = product.version() != null ? product.version() : 0;
+
+        OutboxEvent row = new OutboxEvent();
+        row.productId = event.productId();
+        // Deleting does not bump the version, the deletion still has to supersede the last update
+        row.productVersion = event.type() == ProductChangedEvent.Type.DELETED ? version + 1 : version;
+        row.type = event.type();
+        row.payload = objectMapper.writeValueAsString(product);
+        row.createdAt = LocalDateTime.now();
+        outboxRepository.persist(row);
+    }
+}
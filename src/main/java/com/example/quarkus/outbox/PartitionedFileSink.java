@@ -0,0 +1,74 @@
+package com.example.quarkus.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Local stand-in for a partitioned log such as a Kafka topic: changes are
+ * appended as JSON lines to one file per partition, partitioned by product
+ * id, so each product's changes stay in order within one file. Files are
+ * forced to disk before {@link #publish} returns.
+ */
+@ApplicationScoped
+public class PartitionedFileSink implements ChangeSink {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "product.outbox.file-sink.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.outbox.file-sink.directory", defaultValue = "target/outbox")
+    Path directory;
+
+    @ConfigProperty(name = "product.outbox.file-sink.partitions", defaultValue = "8")
+    int partitions;
+
+    @Override
+    public void publish(List<ProductChange> changes) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<List<ProductChange>> byPartition = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            byPartition.add(new ArrayList<>());
+        }
+        for (ProductChange change : changes) {
+            byPartition.get(Math.floorMod(change.productId().hashCode(), partitions)).add(change);
+        }
+
+        Files.createDirectories(directory);
+        for (int partition = 0; partition < partitions; partition++) {
+            if (byPartition.get(partition).isEmpty()) {
+                continue;
+            }
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (ProductChange change : byPartition.get(partition)) {
+                lines.write(objectMapper.writeValueAsBytes(change));
+                lines.write('\n');
+            }
+            try (FileChannel file = FileChannel.open(directory.resolve("partition-" + partition + ".jsonl"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    file.write(buffer);
+                }
+                file.force(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.quarkus.outbox;
+
+import java.time.LocalDateTime;
+
+import com.example.quarkus.entity.OutboxEvent;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * A published product change. {@code version} orders the changes of one
+ * product: consumers ignore a change whose version is not newer than the
+ * one they hold, which also makes redeliveries harmless. {@code product}
+ * is the product after the change, or before it for deletions.
+ */
+public record ProductChange(
+        long id,
+        Long productId,
+        ProductChangedEvent.Type type,
+        long version,
+        LocalDateTime occurredAt,
+        @JsonRawValue String product) {
+
+    static ProductChange of(OutboxEvent event) {
+        return new ProductChange(event.id, event.productId, event.type, event.productVersion, event.createdAt,
+                event.payload);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.quarkus.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a page (or, for relevance-ranked results,
+ * its offset) into an opaque, URL-safe token. Clients must treat the token as
+ * a black box and only echo it back.
+ */
+public final class CursorCodec {
+
+    private static final String PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "offset:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return encode(PREFIX, lastId);
+    }
+
+    public static Long decode(String cursor) {
+        Position position = decodePosition(cursor);
+        return position != null ? position.lastId() : null;
+    }
+
+    /**
+     * For orders other than by id: the sort value of the last row travels
+     * with its id, as {@code id:<id>:<key>}.
+     */
+    public static String encode(Long lastId, String lastKey) {
+        if (lastId == null) {
+            return null;
+        }
+        if (lastKey == null) {
+            return encode(lastId);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId + ":" + lastKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            String[] parts = decoded.substring(PREFIX.length()).split(":", 2);
+            return new Position(Long.valueOf(parts[0]), parts.length > 1 ? parts[1] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public record Position(Long lastId, String lastKey) {
+    }
+
+    public static String encodeOffset(int offset) {
+        return encode(OFFSET_PREFIX, offset);
+    }
+
+    public static int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        long offset = decode(OFFSET_PREFIX, cursor);
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return (int) offset;
+    }
+
+    private static String encode(String prefix, long position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((prefix + position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decode(String prefix, String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(prefix)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.quarkus.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record Page<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Builds a page from a result that was fetched with one extra row: if the
+     * extra row is present there is a next page, and its cursor points at the
+     * last row that is actually returned.
+     */
+    public static <T> Page<T> of(List<T> rows, int size, Function<T, Long> idOf) {
+        return of(rows, size, idOf, row -> null);
+    }
+
+    /**
+     * Same as {@link #of(List, int, Function)} for orders by another column,
+     * whose value for the last row goes into the cursor next to its id.
+     */
+    public static <T> Page<T> of(List<T> rows, int size, Function<T, Long> idOf, Function<T, String> keyOf) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.get(size - 1);
+        return new Page<>(items, CursorCodec.encode(idOf.apply(last), keyOf.apply(last)));
+    }
+
+    /**
+     * Same as {@link #of} for results that are ranked rather than ordered by
+     * id, where the only stable position is the offset of the next row.
+     */
+    public static <T> Page<T> ofOffset(List<T> rows, int size, int offset) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        return new Page<>(rows.subList(0, size), CursorCodec.encodeOffset(offset + size));
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
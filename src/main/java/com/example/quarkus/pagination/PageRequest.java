@@ -0,0 +1,20 @@
+package com.example.quarkus.pagination;
+
+/**
+ * A keyset page request: return at most {@code size} rows positioned after
+ * ({@code afterKey}, {@code afterId}) in the requested order, or from the
+ * beginning when {@code afterId} is null. {@code afterKey} is the sort value
+ * of the last row and is null when the order is by id alone.
+ */
+public record PageRequest(Long afterId, String afterKey, int size) {
+
+    public static PageRequest of(String cursor, int size, int maxSize) {
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxSize);
+        }
+        CursorCodec.Position position = CursorCodec.decodePosition(cursor);
+        return position == null
+                ? new PageRequest(null, null, size)
+                : new PageRequest(position.lastId(), position.lastKey(), size);
+    }
+}
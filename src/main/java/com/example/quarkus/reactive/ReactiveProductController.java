@@ -0,0 +1,117 @@
+package com.example.quarkus.reactive;
+
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.controller.ProductController;
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Read endpoints mirroring {@link ProductController} on the non-blocking
+ * stack. Methods return {@link Uni}, so RESTEasy Reactive serves them on the
+ * I/O thread without dispatching to a worker. Only built in when
+ * {@code product.reactive.enabled=true}.
+ */
+@IfBuildProperty(name = "product.reactive.enabled", stringValue = "true")
+@Path("/api/reactive/products")
+@Produces(MediaType.APPLICATION_JSON)
+public class ReactiveProductController {
+
+    @Inject
+    ReactiveProductRepository productRepository;
+
+    @ConfigProperty(name = "product.pagination.default-size", defaultValue = "100")
+    int defaultPageSize;
+
+    @ConfigProperty(name = "product.pagination.max-size", defaultValue = "1000")
+    int maxPageSize;
+
+    @GET
+    public Uni<Response> getAllProducts(@QueryParam("active") Boolean active,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo) {
+        return page(null, active != null && active, null, cursor, size, uriInfo);
+    }
+
+    @GET
+    @Path("/{id}")
+    public Uni<Response> getProductById(@PathParam("id") Long id) {
+        return productRepository.findById(id)
+                .map(product -> found(product, "Product not found with id: " + id));
+    }
+
+    @GET
+    @Path("/sku/{sku}")
+    public Uni<Response> getProductBySku(@PathParam("sku") String sku) {
+        return productRepository.findBySku(sku)
+                .map(product -> found(product, "Product not found with SKU: " + sku));
+    }
+
+    @GET
+    @Path("/category/{category}")
+    public Uni<Response> getProductsByCategory(@PathParam("category") ProductCategory category,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo) {
+        return page(category, false, null, cursor, size, uriInfo);
+    }
+
+    @GET
+    @Path("/low-stock")
+    public Uni<Response> getLowStockProducts(@QueryParam("threshold") @DefaultValue("10") int threshold,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @Context UriInfo uriInfo) {
+        return page(null, true, threshold, cursor, size, uriInfo);
+    }
+
+    private Uni<Response> page(ProductCategory category, boolean activeOnly, Integer lowStockThreshold,
+            String cursor, Integer size, UriInfo uriInfo) {
+        PageRequest pageRequest;
+        try {
+            pageRequest = PageRequest.of(cursor, size != null ? size : defaultPageSize, maxPageSize);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", e.getMessage())).build());
+        }
+
+        return productRepository.findPage(category, activeOnly, lowStockThreshold, pageRequest)
+                .map(page -> pageResponse(page, uriInfo));
+    }
+
+    private static Response pageResponse(Page<Product> page, UriInfo uriInfo) {
+        Response.ResponseBuilder response = Response.ok(page.items());
+        if (page.hasNext()) {
+            response.header(ProductController.NEXT_CURSOR_HEADER, page.nextCursor())
+                    .link(uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", page.nextCursor()).build(), "next");
+        }
+        return response.build();
+    }
+
+    private static Response found(Product product, String notFoundMessage) {
+        if (product == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(Map.of("error", notFoundMessage)).build();
+        }
+        return Response.ok(product).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.quarkus.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking product reads on the Vert.x PostgreSQL client. Queries run on
+ * the event loop and never hold a JDBC connection or a worker thread while
+ * waiting for the database.
+ *
+ * Returned products are plain, detached objects. Writes stay on the blocking
+ * {@code ProductService}, which owns transactions, validation and change
+ * events.
+ */
+@IfBuildProperty(name = "product.reactive.enabled", stringValue = "true")
+@ApplicationScoped
+public class ReactiveProductRepository {
+
+    private static final String SELECT = "SELECT id, name, description, price, quantity, sku, category, active, "
+            + "created_at, updated_at, version FROM products";
+
+    @Inject
+    PgPool client;
+
+    public Uni<Product> findById(Long id) {
+        return client.preparedQuery(SELECT + " WHERE id = $1")
+                .execute(Tuple.of(id))
+                .map(ReactiveProductRepository::first);
+    }
+
+    public Uni<Product> findBySku(String sku) {
+        return client.preparedQuery(SELECT + " WHERE sku = $1")
+                .execute(Tuple.of(sku))
+                .map(ReactiveProductRepository::first);
+    }
+
+    /**
+     * A keyset page ordered by id, optionally restricted to one category,
+     * to active products or to products at or below a stock threshold.
+     */
+    public Uni<Page<Product>> findPage(ProductCategory category, boolean activeOnly, Integer lowStockThreshold,
+            PageRequest pageRequest) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (category != null) {
+            parameters.add(category.name());
+            conditions.add("category = $" + parameters.size());
+        }
+        if (activeOnly) {
+            conditions.add("active = true");
+        }
+        if (lowStockThreshold != null) {
+            parameters.add(lowStockThreshold);
+            conditions.add("quantity <= $" + parameters.size());
+        }
+        if (pageRequest.afterId() != null) {
+            parameters.add(pageRequest.afterId());
+            conditions.add("id > $" + parameters.size());
+        }
+        // Fetch one extra row to find out whether there is a next page
+        parameters.add(pageRequest.size() + 1);
+        String sql = SELECT
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY id LIMIT $" + parameters.size();
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.tuple(parameters))
+                .map(rows -> {
+                    List<Product> products = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        products.add(toProduct(row));
+                    }
+                    return Page.of(products, pageRequest.size(), product -> product.id);
+                });
+    }
+
+    private static Product first(RowSet<Row> rows) {
+        for (Row row : rows) {
+            return toProduct(row);
+        }
+        return null;
+    }
+
+    private static Product toProduct(Row row) {
+        Product product = new Product();
+        product.id = row.getLong("id");
+        product.name = row.getString("name");
+        product.description = row.getString("description");
+        product.price = row.getBigDecimal("price");
+        product.quantity = row.getInteger("quantity");
+        product.sku = row.getString("sku");
+        String category = row.getString("category");
+        product.category = category != null ? ProductCategory.valueOf(category) : null;
+        product.active = row.getBoolean("active");
+        product.createdAt = row.getLocalDateTime("created_at");
+        product.updatedAt = row.getLocalDateTime("updated_at");
+        product.version = row.getLong("version");
+        return product;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.quarkus.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.quarkus.entity.OutboxEvent;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+
+@ApplicationScoped
+public class OutboxRepository implements PanacheRepository<OutboxEvent> {
+
+    /**
+     * Oldest unpublished events, locked until the transaction ends. A second
+     * relay waits for the first to finish rather than publishing later
+     * changes of the same products ahead of it.
+     */
+    public List<OutboxEvent> lockOldest(int limit) {
+        return find("publishedAt is null", Sort.by("id"))
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Published events after {@code last} in the order they were published,
+     * all retained ones when {@code last} is null.
+     */
+    public List<OutboxEvent> findPublishedAfter(OutboxEvent last, int limit) {
+        Sort order = Sort.by("publishedAt").and("publishedOrder");
+        if (last == null) {
+            return find("publishedAt is not null", order).page(0, limit).list();
+        }
+        return find("publishedAt > ?1 or (publishedAt = ?1 and publishedOrder > ?2)", order,
+                last.publishedAt, last.publishedOrder)
+                .page(0, limit)
+                .list();
+    }
+
+    public long deletePublishedBefore(LocalDateTime cutoff) {
+        return delete("publishedAt < ?1", cutoff);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.quarkus.repository;
+
+import java.math.BigDecimal;
+
+import com.example.quarkus.entity.ProductCategory;
+
+/**
+ * Totals over all products sharing one category and active flag.
+ * {@code lowStock} counts those at or below the threshold passed to the query.
+ */
+public record ProductAggregate(
+        ProductCategory category,
+        boolean active,
+        long products,
+        long quantity,
+        BigDecimal inventoryValue,
+        long lowStock) {
+}
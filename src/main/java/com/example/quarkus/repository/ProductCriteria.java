@@ -0,0 +1,50 @@
+package com.example.quarkus.repository;
+
+import java.math.BigDecimal;
+
+import com.example.quarkus.entity.ProductCategory;
+
+/**
+ * The structured form of a {@link ProductFilter} built only from category,
+ * price, quantity and status conditions, for evaluating it outside the
+ * database. Null fields are unconstrained; bounds are inclusive.
+ */
+public record ProductCriteria(
+        ProductCategory category,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer minQuantity,
+        Integer maxQuantity,
+        Boolean active) {
+
+    static final ProductCriteria ANY = new ProductCriteria(null, null, null, null, null, null);
+
+    /**
+     * Both criteria at once, or null when they cannot be merged into one
+     * (two different categories or statuses).
+     */
+    ProductCriteria and(ProductCriteria other) {
+        if (!compatible(category, other.category) || !compatible(active, other.active)) {
+            return null;
+        }
+        return new ProductCriteria(
+                category != null ? category : other.category,
+                max(minPrice, other.minPrice),
+                min(maxPrice, other.maxPrice),
+                max(minQuantity, other.minQuantity),
+                min(maxQuantity, other.maxQuantity),
+                active != null ? active : other.active);
+    }
+
+    private static boolean compatible(Object one, Object other) {
+        return one == null || other == null || one.equals(other);
+    }
+
+    private static <T extends Comparable<T>> T max(T one, T other) {
+        return one == null ? other : other == null || one.compareTo(other) >= 0 ? one : other;
+    }
+
+    private static <T extends Comparable<T>> T min(T one, T other) {
+        return one == null ? other : other == null || one.compareTo(other) <= 0 ? one : other;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.quarkus.repository;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.example.quarkus.entity.Product;
+
+/**
+ * A sparse fieldset requested with {@code fields=id,sku,price}. Only these
+ * columns are selected, and rows come back as plain maps rather than managed
+ * entities.
+ */
+public record ProductFields(List<String> names) {
+
+    private static final Map<String, Function<Product, Object>> ACCESSORS = new LinkedHashMap<>();
+
+    static {
+        ACCESSORS.put("id", product -> product.id);
+        ACCESSORS.put("name", product -> product.name);
+        ACCESSORS.put("description", product -> product.description);
+        ACCESSORS.put("price", product -> product.price);
+        ACCESSORS.put("quantity", product -> product.quantity);
+        ACCESSORS.put("sku", product -> product.sku);
+        ACCESSORS.put("category", product -> product.category);
+        ACCESSORS.put("active", product -> product.active);
+        ACCESSORS.put("createdAt", product -> product.createdAt);
+        ACCESSORS.put("updatedAt", product -> product.updatedAt);
+        ACCESSORS.put("version", product -> product.version);
+    }
+
+    private static final List<String> ALLOWED = List.copyOf(ACCESSORS.keySet());
+
+    /**
+     * Returns null (all fields, as entities) when no fieldset was requested.
+     */
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String canonical = ALLOWED.stream().filter(name::equalsIgnoreCase).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field '" + name + "'. Allowed: "
+                            + String.join(", ", ALLOWED)));
+            names.add(canonical);
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        return new ProductFields(List.copyOf(names));
+    }
+
+    /**
+     * The same fieldset taken from an already loaded product, for lookups
+     * served from the cache.
+     */
+    public Map<String, Object> project(Product product) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String name : names) {
+            row.put(name, ACCESSORS.get(name).apply(product));
+        }
+        return row;
+    }
+
+    /**
+     * The requested fields plus any the caller needs internally (the id and
+     * the sort column for the next cursor), in request order.
+     */
+    List<String> selectedWith(String... required) {
+        Set<String> selected = new LinkedHashSet<>(names);
+        selected.addAll(List.of(required));
+        return List.copyOf(selected);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.quarkus.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+
+/**
+ * A reusable where-clause over {@link Product} with named parameters, so the
+ * same filter can back a keyset page, a stream or a count. Filters compose
+ * with {@link #and}, which always yields one predicate for one query.
+ * Filters made of category, price, quantity and status conditions also carry
+ * their {@link ProductCriteria}.
+ */
+public final class ProductFilter {
+
+    private static final ProductFilter ALL = new ProductFilter("", Map.of(), ProductCriteria.ANY);
+
+    private final String query;
+    private final Map<String, Object> parameters;
+    private final ProductCriteria criteria;
+
+    private ProductFilter(String query, Map<String, Object> parameters) {
+        this(query, parameters, null);
+    }
+
+    private ProductFilter(String query, Map<String, Object> parameters, ProductCriteria criteria) {
+        this.query = query;
+        this.parameters = parameters;
+        this.criteria = criteria;
+    }
+
+    public static ProductFilter all() {
+        return ALL;
+    }
+
+    public static ProductFilter none() {
+        return new ProductFilter("1 = 0", Map.of());
+    }
+
+    public static ProductFilter active() {
+        return new ProductFilter("active = true", Map.of(),
+                new ProductCriteria(null, null, null, null, null, true));
+    }
+
+    public static ProductFilter byId(Long id) {
+        return new ProductFilter("id = :id", Map.of("id", id));
+    }
+
+    public static ProductFilter bySku(String sku) {
+        return new ProductFilter("sku = :sku", Map.of("sku", sku));
+    }
+
+    public static ProductFilter byCategory(ProductCategory category) {
+        return new ProductFilter("category = :category", Map.of("category", category),
+                new ProductCriteria(category, null, null, null, null, null));
+    }
+
+    public static ProductFilter nameContaining(String name) {
+        return new ProductFilter("lower(name) like lower(:name)", Map.of("name", "%" + name + "%"));
+    }
+
+    public static ProductFilter priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return new ProductFilter("price >= :minPrice and price <= :maxPrice",
+                Map.of("minPrice", minPrice, "maxPrice", maxPrice),
+                new ProductCriteria(null, minPrice, maxPrice, null, null, null));
+    }
+
+    public static ProductFilter priceAtLeast(BigDecimal minPrice) {
+        return new ProductFilter("price >= :minPrice", Map.of("minPrice", minPrice),
+                new ProductCriteria(null, minPrice, null, null, null, null));
+    }
+
+    public static ProductFilter priceAtMost(BigDecimal maxPrice) {
+        return new ProductFilter("price <= :maxPrice", Map.of("maxPrice", maxPrice),
+                new ProductCriteria(null, null, maxPrice, null, null, null));
+    }
+
+    public static ProductFilter quantityAtLeast(int minQuantity) {
+        return new ProductFilter("quantity >= :minQuantity", Map.of("minQuantity", minQuantity),
+                new ProductCriteria(null, null, null, minQuantity, null, null));
+    }
+
+    public static ProductFilter quantityAtMost(int maxQuantity) {
+        return new ProductFilter("quantity <= :maxQuantity", Map.of("maxQuantity", maxQuantity),
+                new ProductCriteria(null, null, null, null, maxQuantity, null));
+    }
+
+    public static ProductFilter byActive(boolean active) {
+        return new ProductFilter("active = :active", Map.of("active", active),
+                new ProductCriteria(null, null, null, null, null, active));
+    }
+
+    public static ProductFilter idIn(Collection<Long> ids) {
+        return new ProductFilter("id in :ids", Map.of("ids", ids));
+    }
+
+    public static ProductFilter skuIn(Collection<String> skus) {
+        return new ProductFilter("sku in :skus", Map.of("skus", skus));
+    }
+
+    public static ProductFilter lowStock(int threshold) {
+        return new ProductFilter("quantity <= :threshold and active = true", Map.of("threshold", threshold),
+                new ProductCriteria(null, null, null, null, threshold, true));
+    }
+
+    // Keyset position for a sorted page; package-private, built by the repository from a cursor
+    static ProductFilter after(ProductSort sort, Long afterId, Object afterKey) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("afterId", afterId);
+        if (afterKey != null) {
+            parameters.put("afterKey", afterKey);
+        }
+        return new ProductFilter(sort.after(), parameters);
+    }
+
+    public ProductFilter and(ProductFilter other) {
+        if (other.query.isEmpty()) {
+            return this;
+        }
+        if (query.isEmpty()) {
+            return other;
+        }
+        Map<String, Object> combined = new HashMap<>(parameters);
+        other.parameters.forEach((name, value) -> {
+            if (combined.containsKey(name) && !combined.get(name).equals(value)) {
+                throw new IllegalArgumentException("Conflicting values for filter parameter '" + name + "'");
+            }
+            combined.put(name, value);
+        });
+        ProductCriteria both = criteria != null && other.criteria != null ? criteria.and(other.criteria) : null;
+        return new ProductFilter("(" + query + ") and (" + other.query + ")", combined, both);
+    }
+
+    public boolean isEmpty() {
+        return query.isEmpty();
+    }
+
+    public String query() {
+        return query;
+    }
+
+    public Map<String, Object> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Null when the filter has conditions that only the database evaluates,
+     * such as name, SKU, id lists or keyset positions.
+     */
+    public ProductCriteria criteria() {
+        return criteria;
+    }
+}
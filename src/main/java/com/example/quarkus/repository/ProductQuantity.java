@@ -0,0 +1,8 @@
+package com.example.quarkus.repository;
+
+/**
+ * Stock of a product with the version it was read at, so copies kept in
+ * memory can tell a newer quantity from a stale one.
+ */
+public record ProductQuantity(Long id, String sku, Integer quantity, Boolean active, Long version) {
+}
@@ -1,58 +1,374 @@
 package com.example.quarkus.repository;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+
+import com.example.quarkus.datasource.ReadOnly;
 import com.example.quarkus.entity.Product;
 import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.monitoring.RepositoryMetrics;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
 
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
 
 @ApplicationScoped
+@RepositoryMetrics
 public class ProductRepository implements PanacheRepository<Product> {
 
+    // Query cache regions for the first id-ordered page of a category, and of active products
+    public static final String CATEGORY_QUERY_REGION = "product-by-category";
+    public static final String ACTIVE_QUERY_REGION = "product-active";
+
+    private static final String ADJUST_QUANTITY = "update products set quantity = quantity + ?, "
+            + "version = version + 1, updated_at = ? where id = ? and quantity + ? >= ?";
+
+    private static final String SELECT_QUANTITY = "select new com.example.quarkus.repository.ProductQuantity("
+            + "p.id, p.sku, p.quantity, p.active, p.version) from Product p";
+
+    @ConfigProperty(name = "product.stream.fetch-size", defaultValue = "500")
+    int streamFetchSize;
+
+    // The inherited Panache finders carry no routing intent, so the ones called from outside are redeclared here
+
+    @Override
+    @ReadOnly
+    public Product findById(Long id) {
+        return getEntityManager().find(Product.class, id);
+    }
+
+    @Override
+    @ReadOnly
+    public Optional<Product> findByIdOptional(Long id) {
+        return Optional.ofNullable(findById(id));
+    }
+
+    @Override
+    @ReadOnly
+    public List<Product> listAll() {
+        return findAll().list();
+    }
+
+    @Override
+    @ReadOnly
+    public long count() {
+        return findAll().count();
+    }
+
+    @ReadOnly
     public Product findBySku(String sku) {
         return find("sku", sku).firstResult();
     }
 
-    public List<Product> findByCategory(ProductCategory category) {
-        return find("category", category).list();
+    @ReadOnly
+    public List<Product> findBySkus(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return List.of();
+        }
+        return list("sku in ?1", skus);
+    }
+
+    @ReadOnly
+    public List<Product> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return list("id in ?1", ids);
     }
 
-    public List<Product> findActiveProducts() {
-        return find("active", true).list();
+    /**
+     * Projected rows for the given ids, keyed by id (whether or not the id
+     * itself was requested).
+     */
+    @ReadOnly
+    public Map<Long, Map<String, Object>> findByIds(Collection<Long> ids, ProductFields fields) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<String> selected = fields.selectedWith("id");
+        Map<Long, Map<String, Object>> rows = new HashMap<>();
+        for (Tuple tuple : project(ProductFilter.idIn(ids), ProductSort.ID, null, null, selected).getResultList()) {
+            Map<String, Object> row = toRow(tuple, selected);
+            Long id = (Long) row.get("id");
+            row.keySet().retainAll(fields.names());
+            rows.put(id, row);
+        }
+        return rows;
     }
 
-    public List<Product> findByNameContaining(String name) {
-        return find("lower(name) like lower(?1)", "%" + name + "%").list();
+    /**
+     * Projected rows for the given SKUs, keyed by SKU (whether or not the SKU
+     * itself was requested).
+     */
+    @ReadOnly
+    public Map<String, Map<String, Object>> findBySkus(Collection<String> skus, ProductFields fields) {
+        if (skus.isEmpty()) {
+            return Map.of();
+        }
+        List<String> selected = fields.selectedWith("sku");
+        Map<String, Map<String, Object>> rows = new HashMap<>();
+        for (Tuple tuple : project(ProductFilter.skuIn(skus), ProductSort.ID, null, null, selected).getResultList()) {
+            Map<String, Object> row = toRow(tuple, selected);
+            String sku = (String) row.get("sku");
+            row.keySet().retainAll(fields.names());
+            rows.put(sku, row);
+        }
+        return rows;
     }
 
-    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return find("price >= ?1 and price <= ?2", minPrice, maxPrice).list();
+    @ReadOnly
+    public Map<String, Object> findOne(ProductFilter filter, ProductFields fields) {
+        return project(filter, ProductSort.ID, null, null, fields.names())
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toRow(tuple, fields.names()))
+                .orElse(null);
     }
 
-    public List<Product> findLowStockProducts(int threshold) {
-        return find("quantity <= ?1 and active = true", threshold).list();
+    @ReadOnly
+    public ProductVersion findVersionById(Long id) {
+        return findVersion("p.id = ?1", id);
     }
 
-    public long countByCategory(ProductCategory category) {
-        return count("category", category);
+    @ReadOnly
+    public ProductVersion findVersionBySku(String sku) {
+        return findVersion("p.sku = ?1", sku);
     }
 
-    public long countActiveProducts() {
-        return count("active", true);
+    @ReadOnly
+    public List<ProductAggregate> aggregateByCategoryAndActive(int lowStockThreshold) {
+        List<Object[]> rows = getEntityManager()
+                .createQuery("select p.category, p.active, count(p), sum(p.quantity), sum(p.price * p.quantity), "
+                        + "sum(case when p.quantity <= ?1 then 1 else 0 end) "
+                        + "from Product p group by p.category, p.active", Object[].class)
+                .setParameter(1, lowStockThreshold)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new ProductAggregate((ProductCategory) row[0], Boolean.TRUE.equals(row[1]),
+                        ((Number) row[2]).longValue(),
+                        row[3] != null ? ((Number) row[3]).longValue() : 0,
+                        row[4] != null ? new BigDecimal(row[4].toString()) : BigDecimal.ZERO,
+                        row[5] != null ? ((Number) row[5]).longValue() : 0))
+                .toList();
     }
 
+    @ReadOnly
     public boolean existsBySku(String sku) {
         return count("sku", sku) > 0;
     }
 
-    public void deactivateProduct(Long id) {
-        update("active = false where id = ?1", id);
+    /**
+     * Adds {@code delta} to the stock in a single statement, only if at least
+     * {@code floor} units remain (the units held by reservations, or zero).
+     * The row lock is held for the UPDATE alone rather than
+     * across a read-modify-write. Returns the number of rows updated.
+     *
+     * Plain SQL because a JPQL update evicts every product from the
+     * second-level cache. Read the product back with {@link #reload(Long)},
+     * which invalidates its cache entry alone.
+     */
+    public int adjustQuantity(Long id, int delta, long floor) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(ADJUST_QUANTITY)) {
+                statement.setInt(1, delta);
+                statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                statement.setLong(3, id);
+                statement.setInt(4, delta);
+                statement.setLong(5, floor);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Quantity, status and version read from the primary, bypassing the
+     * caches. Null when the product does not exist. Runs in a transaction
+     * because the request's session may already be bound to the replica by
+     * an earlier {@link ReadOnly} read, and transaction sessions always
+     * open on the primary.
+     */
+    @Transactional
+    public ProductQuantity findQuantity(Long id) {
+        return getEntityManager()
+                .createQuery(SELECT_QUANTITY + " where p.id = ?1", ProductQuantity.class)
+                .setParameter(1, id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Must be consumed inside a transaction so the JDBC cursor stays open, which also keeps it on the primary
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Stream<ProductQuantity> streamQuantities() {
+        return getEntityManager()
+                .createQuery(SELECT_QUANTITY, ProductQuantity.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream();
+    }
+
+    /**
+     * Reads a product changed by SQL in this transaction from the database.
+     * The refresh locks its second-level cache entry until the transaction
+     * completes, so no session caches the state from before the change.
+     */
+    public Product reload(Long id) {
+        Product product = getEntityManager().find(Product.class, id,
+                Map.of(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS));
+        if (product != null) {
+            getEntityManager().refresh(product);
+        }
+        return product;
+    }
+
+    @ReadOnly
+    public Page<Product> findPage(ProductFilter filter, PageRequest pageRequest) {
+        return findPage(filter, ProductSort.ID, pageRequest);
+    }
+
+    @ReadOnly
+    public Page<Product> findPage(ProductFilter filter, ProductSort sort, PageRequest pageRequest) {
+        // Fetch one extra row to find out whether there is a next page
+        PanacheQuery<Product> query = seek(filter, sort, pageRequest.afterId(), pageRequest.afterKey())
+                .page(0, pageRequest.size() + 1);
+        String region = queryRegion(filter, sort, pageRequest);
+        List<Product> products = (region != null ? cached(query, region) : query).list();
+        return Page.of(products, pageRequest.size(), product -> product.id, sort::keyOf);
+    }
+
+    /**
+     * Same page as {@link #findPage(ProductFilter, ProductSort, PageRequest)},
+     * selecting only the requested columns. Rows are plain maps, never
+     * managed entities.
+     */
+    @ReadOnly
+    public Page<Map<String, Object>> findPage(ProductFilter filter, ProductSort sort, PageRequest pageRequest,
+            ProductFields fields) {
+        List<String> selected = fields.selectedWith("id", sort.field().property());
+        List<Map<String, Object>> rows = project(filter, sort, pageRequest.afterId(), pageRequest.afterKey(), selected)
+                .setMaxResults(pageRequest.size() + 1)
+                .getResultList()
+                .stream()
+                .map(tuple -> toRow(tuple, selected))
+                .toList();
+        Page<Map<String, Object>> page = Page.of(rows, pageRequest.size(), row -> (Long) row.get("id"),
+                row -> sort.formatKey(row.get(sort.field().property())));
+        // The cursor is built, the columns only selected for it can go
+        page.items().forEach(row -> row.keySet().retainAll(fields.names()));
+        return page;
+    }
+
+    // Must be consumed inside a transaction so the JDBC cursor stays open
+    @ReadOnly
+    public Stream<Product> stream(ProductFilter filter, Long afterId) {
+        return stream(filter, ProductSort.ID, afterId, null);
+    }
+
+    @ReadOnly
+    public Stream<Product> stream(ProductFilter filter, ProductSort sort, Long afterId, String afterKey) {
+        return seek(filter, sort, afterId, afterKey)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .withHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
+    @ReadOnly
+    public Stream<Map<String, Object>> stream(ProductFilter filter, ProductSort sort, Long afterId, String afterKey,
+            ProductFields fields) {
+        List<String> selected = fields.names();
+        return project(filter, sort, afterId, afterKey, selected)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream()
+                .map(tuple -> toRow(tuple, selected));
+    }
+
+    private static PanacheQuery<Product> cached(PanacheQuery<Product> query, String region) {
+        return query.withHint(HibernateHints.HINT_CACHEABLE, true)
+                .withHint(HibernateHints.HINT_CACHE_REGION, region);
+    }
+
+    /**
+     * Query cache region for the first page of a category or of the active
+     * products in id order, null for every other page. These lists only
+     * change when products are created, deleted, activated or recategorized,
+     * never with their stock, which is written in SQL without invalidating
+     * cached queries.
+     */
+    private static String queryRegion(ProductFilter filter, ProductSort sort, PageRequest pageRequest) {
+        ProductCriteria criteria = filter.criteria();
+        if (criteria == null || pageRequest.afterId() != null || !ProductSort.ID.equals(sort)
+                || criteria.minPrice() != null || criteria.maxPrice() != null
+                || criteria.minQuantity() != null || criteria.maxQuantity() != null) {
+            return null;
+        }
+        if (criteria.category() != null) {
+            return CATEGORY_QUERY_REGION;
+        }
+        return Boolean.TRUE.equals(criteria.active()) ? ACTIVE_QUERY_REGION : null;
+    }
+
+    private PanacheQuery<Product> seek(ProductFilter filter, ProductSort sort, Long afterId, String afterKey) {
+        ProductFilter where = after(filter, sort, afterId, afterKey);
+        if (where.isEmpty()) {
+            return findAll(sort.toPanacheSort());
+        }
+        return find(where.query(), sort.toPanacheSort(), where.parameters());
+    }
+
+    private TypedQuery<Tuple> project(ProductFilter filter, ProductSort sort, Long afterId, String afterKey,
+            List<String> selected) {
+        ProductFilter where = after(filter, sort, afterId, afterKey);
+        String select = selected.stream().map(field -> "p." + field).collect(Collectors.joining(", "));
+        TypedQuery<Tuple> query = getEntityManager().createQuery("select " + select + " from Product p"
+                + (where.isEmpty() ? "" : " where " + where.query())
+                + " order by " + sort.orderBy(), Tuple.class);
+        where.parameters().forEach(query::setParameter);
+        return query;
+    }
+
+    private ProductVersion findVersion(String where, Object parameter) {
+        return getEntityManager()
+                .createQuery("select new com.example.quarkus.repository.ProductVersion(p.id, p.version) "
+                        + "from Product p where " + where, ProductVersion.class)
+                .setParameter(1, parameter)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static ProductFilter after(ProductFilter filter, ProductSort sort, Long afterId, String afterKey) {
+        if (afterId == null) {
+            return filter;
+        }
+        return filter.and(ProductFilter.after(sort, afterId, sort.parseKey(afterKey)));
     }
 
-    public void activateProduct(Long id) {
-        update("active = true where id = ?1", id);
+    private static Map<String, Object> toRow(Tuple tuple, List<String> selected) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < selected.size(); i++) {
+            row.put(selected.get(i), tuple.get(i));
+        }
+        return row;
     }
 }
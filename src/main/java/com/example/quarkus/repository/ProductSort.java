@@ -0,0 +1,118 @@
+package com.example.quarkus.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import com.example.quarkus.entity.Product;
+
+import io.quarkus.panache.common.Sort;
+
+/**
+ * Sort order for product lists. The id is always appended as a tie-breaker,
+ * so every order is total and can be paged with a (sort value, id) keyset.
+ * Only non-null columns are sortable.
+ */
+public record ProductSort(Field field, boolean descending) {
+
+    public static final ProductSort ID = new ProductSort(Field.ID, false);
+
+    public enum Field {
+        ID("id", Long::valueOf, product -> product.id),
+        NAME("name", value -> value, product -> product.name),
+        PRICE("price", BigDecimal::new, product -> product.price),
+        QUANTITY("quantity", Integer::valueOf, product -> product.quantity),
+        CREATED_AT("createdAt", LocalDateTime::parse, product -> product.createdAt);
+
+        private final String property;
+        private final Function<String, Object> parser;
+        private final Function<Product, Object> accessor;
+
+        Field(String property, Function<String, Object> parser, Function<Product, Object> accessor) {
+            this.property = property;
+            this.parser = parser;
+            this.accessor = accessor;
+        }
+
+        public String property() {
+            return property;
+        }
+    }
+
+    /**
+     * Parses {@code price} (ascending) or {@code -price} (descending); a
+     * missing value sorts by id.
+     */
+    public static ProductSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID;
+        }
+        String value = sort.trim();
+        boolean descending = value.startsWith("-");
+        String property = descending ? value.substring(1) : value;
+        for (Field field : Field.values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return new ProductSort(field, descending);
+            }
+        }
+        throw new IllegalArgumentException("Cannot sort by '" + property + "'. Allowed: id, name, price, quantity, "
+                + "createdAt");
+    }
+
+    public boolean byId() {
+        return field == Field.ID;
+    }
+
+    public String orderBy() {
+        String direction = descending ? " desc" : "";
+        return byId() ? "id" + direction : field.property + direction + ", id" + direction;
+    }
+
+    /**
+     * Rows strictly after the keyset position, in this order. Uses the
+     * parameters {@code :afterKey} and {@code :afterId}.
+     */
+    public String after() {
+        String comparison = descending ? "<" : ">";
+        if (byId()) {
+            return "id " + comparison + " :afterId";
+        }
+        return "(" + field.property + " " + comparison + " :afterKey or (" + field.property
+                + " = :afterKey and id " + comparison + " :afterId))";
+    }
+
+    public Sort toPanacheSort() {
+        Sort.Direction direction = descending ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        return byId() ? Sort.by("id", direction) : Sort.by(field.property, direction).and("id", direction);
+    }
+
+    /**
+     * The typed sort value of a cursor position; null when sorting by id.
+     * Fails when the cursor was issued for a different order.
+     */
+    public Object parseKey(String key) {
+        if (byId()) {
+            return null;
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Cursor does not match sort '" + field.property + "'");
+        }
+        try {
+            return field.parser.apply(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor does not match sort '" + field.property + "'");
+        }
+    }
+
+    public String keyOf(Product product) {
+        return formatKey(field.accessor.apply(product));
+    }
+
+    // The sort value as carried in a cursor; null when sorting by id alone
+    public String formatKey(Object value) {
+        if (byId()) {
+            return null;
+        }
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value);
+    }
+}
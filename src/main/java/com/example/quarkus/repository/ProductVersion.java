@@ -0,0 +1,8 @@
+package com.example.quarkus.repository;
+
+/**
+ * Identity and optimistic-lock version of a product, enough to tell whether a
+ * client's copy is current without loading the row.
+ */
+public record ProductVersion(Long id, Long version) {
+}
@@ -0,0 +1,50 @@
+package com.example.quarkus.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.example.quarkus.entity.StockReservation;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class ReservationRepository implements PanacheRepository<StockReservation> {
+
+    /**
+     * Item rows of reservations that are still held and not yet expired,
+     * for rebuilding the in-memory holds at startup.
+     */
+    public List<StockReservation> findHeld(LocalDateTime now) {
+        return list("status = ?1 and expiresAt > ?2 and reservationId not in "
+                + "(select r.reservationId from StockReservation r where r.status <> ?1)",
+                Sort.by("id"), StockReservation.Status.HELD, now);
+    }
+
+    /**
+     * Ids of up to {@code limit} reservations still held in the log although
+     * they expired by {@code now}, oldest first: they lapsed while no
+     * instance was running to expire them.
+     */
+    public List<String> findLapsedIds(LocalDateTime now, int limit) {
+        return getEntityManager()
+                .createQuery("select r.reservationId from StockReservation r where r.status = ?1 "
+                        + "and r.expiresAt <= ?2 and r.reservationId not in "
+                        + "(select t.reservationId from StockReservation t where t.status <> ?1) "
+                        + "group by r.reservationId order by min(r.id)", String.class)
+                .setParameter(1, StockReservation.Status.HELD)
+                .setParameter(2, now)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public List<StockReservation> findByReservationIds(Collection<String> reservationIds) {
+        return list("reservationId in ?1", Sort.by("id"), reservationIds);
+    }
+
+    public List<StockReservation> findByReservationId(String reservationId) {
+        return list("reservationId", Sort.by("id"), reservationId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.quarkus.reservation;
+
+/**
+ * Stock of a product as seen by checkout: {@code available} is the quantity
+ * on hand minus what active reservations hold.
+ */
+public record Availability(Long productId, int quantity, long reserved, long available) {
+}
@@ -0,0 +1,50 @@
+package com.example.quarkus.reservation;
+
+/**
+ * Quantity on hand of one product and the part of it held by active
+ * reservations. The quantity only moves forward: a change event carrying an
+ * older version than the one already seen is ignored.
+ */
+final class ProductHolds {
+
+    private int quantity;
+    private long version;
+    private long held;
+
+    ProductHolds(int quantity, long version) {
+        this.quantity = quantity;
+        this.version = version;
+    }
+
+    synchronized boolean tryHold(int amount) {
+        if (quantity - held < amount) {
+            return false;
+        }
+        held += amount;
+        return true;
+    }
+
+    // Reservations recovered at startup were promised before, whatever the stock is now
+    synchronized void forceHold(int amount) {
+        held += amount;
+    }
+
+    synchronized void release(int amount) {
+        held -= amount;
+    }
+
+    synchronized void update(int quantity, long version) {
+        if (version > this.version) {
+            this.quantity = quantity;
+            this.version = version;
+        }
+    }
+
+    synchronized long held() {
+        return held;
+    }
+
+    synchronized Availability availability(Long productId) {
+        return new Availability(productId, quantity, held, Math.max(0, quantity - held));
+    }
+}
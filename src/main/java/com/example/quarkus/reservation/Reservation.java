@@ -0,0 +1,21 @@
+package com.example.quarkus.reservation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.quarkus.entity.StockReservation;
+
+public record Reservation(
+        String id,
+        List<ReservationItem> items,
+        StockReservation.Status status,
+        LocalDateTime expiresAt) {
+
+    public Reservation withStatus(StockReservation.Status status) {
+        return new Reservation(id, items, status, expiresAt);
+    }
+
+    boolean expired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
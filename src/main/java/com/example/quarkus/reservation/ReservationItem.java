@@ -0,0 +1,4 @@
+package com.example.quarkus.reservation;
+
+public record ReservationItem(Long productId, int quantity) {
+}
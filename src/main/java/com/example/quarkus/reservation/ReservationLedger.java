@@ -0,0 +1,162 @@
+package com.example.quarkus.reservation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.repository.ProductQuantity;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.service.StockCoalescer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * In-memory holds and active reservations, the hot path of checkout.
+ *
+ * Each product's quantity is loaded from the database on first use and
+ * follows committed changes afterwards. Holds are taken under the product's
+ * own monitor only, so reserving never touches the {@code products} row.
+ * A reservation is active from the moment its hold is logged until it is
+ * claimed by a commit, a release or the expiry sweep; claiming removes it,
+ * so exactly one of them wins. Holds are taken and released through the
+ * {@link StockCoalescer}, so coalesced adjustments cannot sell held units.
+ */
+@ApplicationScoped
+public class ReservationLedger {
+
+    private static final Comparator<Reservation> BY_EXPIRY = Comparator.comparing(Reservation::expiresAt)
+            .thenComparing(Reservation::id);
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockCoalescer stockCoalescer;
+
+    private final Map<Long, ProductHolds> products = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> active = new ConcurrentHashMap<>();
+    private final NavigableSet<Reservation> expiries = new ConcurrentSkipListSet<>(BY_EXPIRY);
+
+    public Availability availability(Long productId) {
+        return holds(productId).availability(productId);
+    }
+
+    /**
+     * Units of the product held by active reservations, which direct stock
+     * adjustments must leave in place.
+     */
+    public long held(Long productId) {
+        ProductHolds holds = products.get(productId);
+        return holds != null ? holds.held() : 0;
+    }
+
+    int activeCount() {
+        return active.size();
+    }
+
+    /**
+     * Holds every item of the reservation, or none of them.
+     */
+    void hold(Reservation reservation) {
+        List<ReservationItem> taken = new ArrayList<>();
+        try {
+            for (ReservationItem item : reservation.items()) {
+                ProductHolds holds = holds(item.productId());
+                if (!stockCoalescer.hold(item.productId(), item.quantity(), () -> holds.tryHold(item.quantity()))) {
+                    throw new IllegalStateException("Insufficient stock for product " + item.productId()
+                            + ". Available: " + holds.availability(item.productId()).available());
+                }
+                taken.add(item);
+            }
+        } catch (RuntimeException e) {
+            taken.forEach(this::release);
+            throw e;
+        }
+    }
+
+    void recover(Reservation reservation) {
+        reservation.items().forEach(item -> holds(item.productId()).forceHold(item.quantity()));
+        activate(reservation);
+    }
+
+    void activate(Reservation reservation) {
+        active.put(reservation.id(), reservation);
+        expiries.add(reservation);
+    }
+
+    Reservation active(String id) {
+        return active.get(id);
+    }
+
+    /**
+     * Takes the reservation out of the active set, null when it is not active
+     * (anymore). The holds stay until {@link #release(Reservation)}.
+     */
+    Reservation claim(String id) {
+        Reservation reservation = active.get(id);
+        if (reservation == null || !active.remove(id, reservation)) {
+            return null;
+        }
+        expiries.remove(reservation);
+        return reservation;
+    }
+
+    /**
+     * Claims up to {@code limit} reservations that expired by {@code now},
+     * earliest first.
+     */
+    List<Reservation> claimExpired(LocalDateTime now, int limit) {
+        List<Reservation> claimed = new ArrayList<>();
+        for (Reservation reservation : expiries) {
+            if (claimed.size() == limit || !reservation.expired(now)) {
+                break;
+            }
+            if (claim(reservation.id()) != null) {
+                claimed.add(reservation);
+            }
+        }
+        return claimed;
+    }
+
+    void release(Reservation reservation) {
+        reservation.items().forEach(this::release);
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            products.remove(event.productId());
+            return;
+        }
+        ProductHolds holds = products.get(event.productId());
+        if (holds != null && event.after().version() != null) {
+            holds.update(event.after().quantity(), event.after().version());
+        }
+    }
+
+    private void release(ReservationItem item) {
+        ProductHolds holds = products.get(item.productId());
+        if (holds != null) {
+            stockCoalescer.release(item.productId(), item.quantity(), () -> holds.release(item.quantity()));
+        }
+    }
+
+    private ProductHolds holds(Long productId) {
+        return products.computeIfAbsent(productId, id -> {
+            ProductQuantity stock = productRepository.findQuantity(id);
+            if (stock == null) {
+                throw new NotFoundException("Product not found with id: " + id);
+            }
+            return new ProductHolds(stock.quantity(), stock.version());
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.quarkus.reservation;
+
+import java.util.List;
+
+/**
+ * Items to hold together. {@code ttlSeconds} defaults to
+ * {@code product.reservations.default-ttl}.
+ */
+public record ReservationRequest(List<ReservationItem> items, Long ttlSeconds) {
+}
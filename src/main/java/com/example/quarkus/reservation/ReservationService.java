@@ -0,0 +1,288 @@
+package com.example.quarkus.reservation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.entity.StockReservation;
+import com.example.quarkus.repository.ReservationRepository;
+import com.example.quarkus.service.StockService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Reserve, commit and release stock for checkout.
+ *
+ * Holds are taken in the {@link ReservationLedger} and every state change is
+ * appended to {@code stock_reservations} before it is acknowledged, so the
+ * active holds survive a restart. Only a commit writes to {@code products}:
+ * one conditional UPDATE per item in a single short transaction. Expired
+ * reservations are released by a sweep, in batches of
+ * {@code product.reservations.sweep-batch-size}; those that expired while
+ * the application was down are expired the same way at startup.
+ */
+@ApplicationScoped
+public class ReservationService {
+
+    private static final Logger LOG = Logger.getLogger(ReservationService.class);
+
+    @Inject
+    ReservationLedger ledger;
+
+    @Inject
+    ReservationRepository reservationRepository;
+
+    @Inject
+    StockService stockService;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.reservations.default-ttl", defaultValue = "15m")
+    Duration defaultTtl;
+
+    @ConfigProperty(name = "product.reservations.max-ttl", defaultValue = "1h")
+    Duration maxTtl;
+
+    @ConfigProperty(name = "product.reservations.sweep-batch-size", defaultValue = "500")
+    int sweepBatchSize;
+
+    private final Map<String, Counter> outcomes = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (String outcome : List.of("reserved", "rejected", "committed", "released", "expired")) {
+            outcomes.put(outcome, Counter.builder("product.reservations").tag("outcome", outcome).register(registry));
+        }
+        registry.gauge("product.reservations.active", ledger, ReservationLedger::activeCount);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        // One instant for both, so a reservation is either recovered or expired
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<StockReservation>> held = new LinkedHashMap<>();
+        QuarkusTransaction.requiringNew().call(() -> reservationRepository.findHeld(now))
+                .forEach(row -> held.computeIfAbsent(row.reservationId, id -> new ArrayList<>()).add(row));
+        held.values().forEach(rows -> ledger.recover(toReservation(rows)));
+        if (!held.isEmpty()) {
+            LOG.infof("Recovered %d active stock reservations", held.size());
+        }
+        expireLapsed(now);
+    }
+
+    /**
+     * Appends the EXPIRED state of reservations that are still held in the
+     * log but expired by {@code now}, which at startup means while the
+     * application was down. Those are not in the ledger, so the sweep never
+     * sees them. A batch that cannot be written is handed to the ledger, and
+     * the sweep retries it.
+     */
+    public void expireLapsed(LocalDateTime now) {
+        int lapsed = 0;
+        List<String> ids;
+        do {
+            ids = QuarkusTransaction.requiringNew()
+                    .call(() -> reservationRepository.findLapsedIds(now, sweepBatchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Map<String, List<StockReservation>> rows = new LinkedHashMap<>();
+            List<String> batchIds = ids;
+            QuarkusTransaction.requiringNew().call(() -> reservationRepository.findByReservationIds(batchIds))
+                    .forEach(row -> rows.computeIfAbsent(row.reservationId, id -> new ArrayList<>()).add(row));
+            List<Reservation> batch = rows.values().stream().map(ReservationService::toReservation).toList();
+            if (!appendExpired(batch)) {
+                batch.forEach(ledger::recover);
+                return;
+            }
+            lapsed += batch.size();
+        } while (ids.size() == sweepBatchSize);
+        if (lapsed > 0) {
+            LOG.infof("Expired %d stock reservations that lapsed while the application was down", lapsed);
+        }
+    }
+
+    public Reservation reserve(ReservationRequest request) {
+        List<ReservationItem> items = validItems(request);
+        Duration ttl = request.ttlSeconds() != null ? Duration.ofSeconds(request.ttlSeconds()) : defaultTtl;
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + maxTtl.toSeconds());
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), items,
+                StockReservation.Status.HELD, LocalDateTime.now().plus(ttl));
+
+        try {
+            ledger.hold(reservation);
+        } catch (IllegalStateException e) {
+            outcomes.get("rejected").increment();
+            throw e;
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> append(reservation, StockReservation.Status.HELD));
+        } catch (RuntimeException e) {
+            ledger.release(reservation);
+            throw e;
+        }
+        ledger.activate(reservation);
+        outcomes.get("reserved").increment();
+        return reservation;
+    }
+
+    /**
+     * Takes the held items out of stock. Fails with a conflict when the
+     * reservation is no longer active, or when the stock was lowered below
+     * the reservation by a direct update; it then stays active.
+     */
+    public Reservation commit(String id) {
+        Reservation reservation = claim(id);
+        if (reservation.expired(LocalDateTime.now())) {
+            // Left for the sweep, which logs the expiry
+            ledger.activate(reservation);
+            throw new IllegalStateException("Reservation " + id + " has expired");
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (ReservationItem item : reservation.items()) {
+                    // Everything held for other reservations has to stay on hand
+                    stockService.adjust(item.productId(), -item.quantity(),
+                            ledger.held(item.productId()) - item.quantity());
+                }
+                append(reservation, StockReservation.Status.COMMITTED);
+            });
+        } catch (IllegalArgumentException | NotFoundException e) {
+            ledger.activate(reservation);
+            throw new IllegalStateException("Reservation " + id + " cannot be committed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            ledger.activate(reservation);
+            throw e;
+        }
+        // Released after the new quantities are in the ledger, never before
+        ledger.release(reservation);
+        outcomes.get("committed").increment();
+        return reservation.withStatus(StockReservation.Status.COMMITTED);
+    }
+
+    public Reservation release(String id) {
+        Reservation reservation = claim(id);
+        try {
+            QuarkusTransaction.requiringNew().run(() -> append(reservation, StockReservation.Status.RELEASED));
+        } catch (RuntimeException e) {
+            ledger.activate(reservation);
+            throw e;
+        }
+        ledger.release(reservation);
+        outcomes.get("released").increment();
+        return reservation.withStatus(StockReservation.Status.RELEASED);
+    }
+
+    public Reservation find(String id) {
+        Reservation reservation = ledger.active(id);
+        if (reservation != null) {
+            return reservation;
+        }
+        List<StockReservation> rows = reservationRepository.findByReservationId(id);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Reservation not found with id: " + id);
+        }
+        return toReservation(rows);
+    }
+
+    @Scheduled(every = "${product.reservations.sweep-interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void expire() {
+        List<Reservation> expired;
+        do {
+            expired = ledger.claimExpired(LocalDateTime.now(), sweepBatchSize);
+            if (expired.isEmpty()) {
+                return;
+            }
+            if (!appendExpired(expired)) {
+                expired.forEach(ledger::activate);
+                return;
+            }
+            expired.forEach(ledger::release);
+        } while (expired.size() == sweepBatchSize);
+    }
+
+    private boolean appendExpired(List<Reservation> batch) {
+        try {
+            QuarkusTransaction.requiringNew()
+                    .run(() -> batch.forEach(reservation -> append(reservation, StockReservation.Status.EXPIRED)));
+        } catch (RuntimeException e) {
+            LOG.warnf("Expiring %d stock reservations failed, retrying on the next run: %s", batch.size(),
+                    e.getMessage());
+            return false;
+        }
+        outcomes.get("expired").increment(batch.size());
+        return true;
+    }
+
+    private Reservation claim(String id) {
+        Reservation reservation = ledger.claim(id);
+        if (reservation == null) {
+            StockReservation.Status status = find(id).status();
+            throw new IllegalStateException("Reservation " + id + " is " + status.name().toLowerCase());
+        }
+        return reservation;
+    }
+
+    private void append(Reservation reservation, StockReservation.Status status) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ReservationItem item : reservation.items()) {
+            StockReservation row = new StockReservation();
+            row.reservationId = reservation.id();
+            row.productId = item.productId();
+            row.quantity = item.quantity();
+            row.status = status;
+            row.expiresAt = reservation.expiresAt();
+            row.createdAt = now;
+            reservationRepository.persist(row);
+        }
+    }
+
+    // Merges repeated products; sorted by id so concurrent commits lock rows in the same order
+    private static List<ReservationItem> validItems(ReservationRequest request) {
+        if (request == null || request.items() == null || request.items().isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ReservationItem item : request.items()) {
+            if (item == null || item.productId() == null) {
+                throw new IllegalArgumentException("Every item needs a productId");
+            }
+            if (item.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + item.productId());
+            }
+            quantities.merge(item.productId(), item.quantity(), Math::addExact);
+        }
+        return quantities.entrySet().stream()
+                .map(entry -> new ReservationItem(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static Reservation toReservation(List<StockReservation> rows) {
+        StockReservation last = rows.get(rows.size() - 1);
+        List<ReservationItem> items = rows.stream()
+                .filter(row -> row.status == StockReservation.Status.HELD)
+                .map(row -> new ReservationItem(row.productId, row.quantity))
+                .toList();
+        return new Reservation(last.reservationId, items, last.status, last.expiresAt);
+    }
+}
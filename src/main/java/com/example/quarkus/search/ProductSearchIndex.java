@@ -0,0 +1,388 @@
+package com.example.quarkus.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * In-process inverted index over product name, SKU, category and description.
+ *
+ * The index is built from the database at startup and then kept current from
+ * committed {@link ProductChangedEvent}s. Every query term must match a
+ * product, either exactly, as a prefix of an indexed term, or within one or
+ * two typos (candidates are found through a trigram index over the term
+ * dictionary). Hits are ranked by idf-weighted field boosts, with prefix and
+ * fuzzy matches counting less than exact ones.
+ *
+ * The index is reconciled against the database periodically, which repairs
+ * drift from writes that raise no event here (manual SQL, another instance).
+ * A reconciliation that overlaps with a write is skipped and retried on the
+ * next run.
+ */
+@ApplicationScoped
+public class ProductSearchIndex {
+
+    private static final Logger LOG = Logger.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float SKU_BOOST = 2.0f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final float FUZZY_WEIGHT = 0.4f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.search.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.search.max-expansions", defaultValue = "50")
+    int maxExpansions;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    // Sorted so prefix expansion is a sub-map scan
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final AtomicLong appliedEvents = new AtomicLong();
+
+    private Timer searchTimer;
+    private Counter drift;
+
+    private record Document(Long id, BigDecimal price, ProductCategory category, int quantity, boolean active,
+            Map<String, Float> weights) {
+
+        boolean sameAs(Document other) {
+            return other != null && id.equals(other.id) && category == other.category && quantity == other.quantity
+                    && active == other.active && weights.equals(other.weights)
+                    && (price == null ? other.price == null : other.price != null && price.compareTo(other.price) == 0);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        searchTimer = registry.timer("product.search");
+        drift = registry.counter("product.search.drift");
+        registry.gauge("product.search.documents", documents, Map::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Stream<Product> products = productRepository.stream(ProductFilter.all(), null)) {
+            products.forEach(product -> {
+                index(ProductSnapshot.of(product));
+                productRepository.getEntityManager().detach(product);
+            });
+        }
+        LOG.infof("Indexed %d products for search in %d ms", documents.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Re-indexes the products whose document differs from the database and
+     * drops those no longer in it.
+     */
+    @Scheduled(every = "${product.search.reconcile-interval:5m}", delayed = "${product.search.reconcile-interval:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        long seen = appliedEvents.get();
+        Set<Long> found = new HashSet<>();
+        List<Document> changed = new ArrayList<>();
+        try (Stream<Product> products = productRepository.stream(ProductFilter.all(), null)) {
+            products.forEach(product -> {
+                Document expected = document(ProductSnapshot.of(product));
+                productRepository.getEntityManager().detach(product);
+                found.add(expected.id());
+                lock.readLock().lock();
+                try {
+                    if (!expected.sameAs(documents.get(expected.id()))) {
+                        changed.add(expected);
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (appliedEvents.get() != seen) {
+                LOG.debug("Products changed during search index reconciliation, retrying on the next run");
+                return;
+            }
+            List<Long> removed = documents.keySet().stream().filter(id -> !found.contains(id)).toList();
+            removed.forEach(this::removeLocked);
+            changed.forEach(this::indexLocked);
+            if (!removed.isEmpty() || !changed.isEmpty()) {
+                drift.increment(removed.size() + changed.size());
+                LOG.warnf("Search index drifted from the database: %d products re-indexed, %d removed",
+                        changed.size(), removed.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        appliedEvents.incrementAndGet();
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            remove(event.productId());
+        } else {
+            index(event.after());
+        }
+    }
+
+    public void index(ProductSnapshot product) {
+        Document document = document(product);
+        lock.writeLock().lock();
+        try {
+            indexLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} hits, best first. A query without any
+     * searchable term matches nothing.
+     */
+    public List<SearchHit> search(SearchQuery query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(TextAnalyzer.tokens(query.text()));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> matches = match(token);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // Keep only the best `limit` hits: the worst retained hit sits at the head
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(SearchHit.RANKING.reversed());
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                if (!accepts(query, documents.get(entry.getKey()))) {
+                    continue;
+                }
+                top.offer(new SearchHit(entry.getKey(), entry.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(SearchHit.RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Best weight per product over the exact, prefix and fuzzy expansions of one query token
+    private Map<Long, Float> match(String token) {
+        Map<Long, Float> matches = new HashMap<>();
+        addPostings(matches, token, 1.0f);
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (++expansions > maxExpansions) {
+                    break;
+                }
+                addPostings(matches, term, PREFIX_WEIGHT);
+            }
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            Set<String> trigrams = TextAnalyzer.trigrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : trigrams) {
+                for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+            // A single edit changes at most three trigrams
+            int required = trigrams.size() - 3 * maxEdits;
+            int expansions = 0;
+            for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                String term = candidate.getKey();
+                if (candidate.getValue() < required || term.equals(token)) {
+                    continue;
+                }
+                int distance = TextAnalyzer.distance(token, term, maxEdits);
+                if (distance <= maxEdits) {
+                    addPostings(matches, term, FUZZY_WEIGHT / distance);
+                    if (++expansions >= maxExpansions) {
+                        break;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void addPostings(Map<Long, Float> matches, String term, float weight) {
+        Map<Long, Float> products = postings.get(term);
+        if (products == null) {
+            return;
+        }
+        float idf = (float) Math.log(1 + (documents.size() - products.size() + 0.5) / (products.size() + 0.5));
+        products.forEach((id, fieldWeight) -> matches.merge(id, fieldWeight * idf * weight, Math::max));
+    }
+
+    private static boolean accepts(SearchQuery query, Document document) {
+        if (document == null) {
+            return false;
+        }
+        if (query.category() != null && query.category() != document.category()) {
+            return false;
+        }
+        if (query.active() != null && query.active() != document.active()) {
+            return false;
+        }
+        if (query.minQuantity() != null && document.quantity() < query.minQuantity()) {
+            return false;
+        }
+        if (query.maxQuantity() != null && document.quantity() > query.maxQuantity()) {
+            return false;
+        }
+        if (query.minPrice() != null && (document.price() == null || document.price().compareTo(query.minPrice()) < 0)) {
+            return false;
+        }
+        return query.maxPrice() == null || (document.price() != null && document.price().compareTo(query.maxPrice()) <= 0);
+    }
+
+    private static Document document(ProductSnapshot product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.name(), NAME_BOOST);
+        addField(weights, product.sku(), SKU_BOOST);
+        addField(weights, product.category() != null ? product.category().name() : null, CATEGORY_BOOST);
+        addField(weights, product.description(), DESCRIPTION_BOOST);
+        return new Document(product.id(), product.price(), product.category(),
+                product.quantity() != null ? product.quantity() : 0, Boolean.TRUE.equals(product.active()), weights);
+    }
+
+    private void indexLocked(Document document) {
+        removeLocked(document.id());
+        documents.put(document.id(), document);
+        document.weights().forEach((term, weight) -> postings.computeIfAbsent(term, this::newTerm)
+                .put(document.id(), weight));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float boost) {
+        for (String token : TextAnalyzer.tokens(text)) {
+            weights.merge(token, boost, Float::sum);
+        }
+    }
+
+    private Map<Long, Float> newTerm(String term) {
+        for (String trigram : TextAnalyzer.trigrams(term)) {
+            termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+        }
+        return new HashMap<>();
+    }
+
+    private void removeLocked(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.weights().keySet()) {
+            Map<Long, Float> products = postings.get(term);
+            if (products == null) {
+                continue;
+            }
+            products.remove(id);
+            if (products.isEmpty()) {
+                postings.remove(term);
+                for (String trigram : TextAnalyzer.trigrams(term)) {
+                    Set<String> terms = termsByTrigram.get(trigram);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            termsByTrigram.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
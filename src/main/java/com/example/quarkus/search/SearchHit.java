@@ -0,0 +1,10 @@
+package com.example.quarkus.search;
+
+import java.util.Comparator;
+
+public record SearchHit(Long id, float score) {
+
+    // Best score first, ties broken by id so pages are stable
+    public static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparing(SearchHit::id);
+}
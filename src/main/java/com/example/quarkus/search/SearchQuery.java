@@ -0,0 +1,23 @@
+package com.example.quarkus.search;
+
+import java.math.BigDecimal;
+
+import com.example.quarkus.entity.ProductCategory;
+
+/**
+ * A full-text query plus optional structured filters. Null filters are not
+ * applied; the price bounds are inclusive.
+ */
+public record SearchQuery(
+        String text,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        ProductCategory category,
+        Integer minQuantity,
+        Integer maxQuantity,
+        Boolean active) {
+
+    public static SearchQuery of(String text) {
+        return new SearchQuery(text, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.quarkus.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One requested id or SKU and the product found for it: the whole product,
+ * or a map of the requested fields. {@code product} is left out when
+ * {@code found} is false.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchGetItem(Long id, String sku, boolean found, Object product) {
+
+    public static BatchGetItem ofId(Long id, Object product) {
+        return new BatchGetItem(id, null, product != null, product);
+    }
+
+    public static BatchGetItem ofSku(String sku, Object product) {
+        return new BatchGetItem(null, sku, product != null, product);
+    }
+}
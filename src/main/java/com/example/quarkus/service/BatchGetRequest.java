@@ -0,0 +1,9 @@
+package com.example.quarkus.service;
+
+import java.util.List;
+
+/**
+ * Products to look up at once, by id and by SKU. Either list may be omitted.
+ */
+public record BatchGetRequest(List<Long> ids, List<String> skus) {
+}
@@ -0,0 +1,15 @@
+package com.example.quarkus.service;
+
+import java.util.List;
+
+/**
+ * Items for the requested ids followed by those for the requested SKUs, each
+ * in request order, duplicates included.
+ */
+public record BatchGetResult(int found, int missing, List<BatchGetItem> items) {
+
+    public static BatchGetResult of(List<BatchGetItem> items) {
+        int found = (int) items.stream().filter(BatchGetItem::found).count();
+        return new BatchGetResult(found, items.size() - found, items);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.quarkus.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(int index, String sku, Status status, Long id, String error) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    public static BulkItemResult created(int index, String sku, Long id) {
+        return new BulkItemResult(index, sku, Status.CREATED, id, null);
+    }
+
+    public static BulkItemResult updated(int index, String sku, Long id) {
+        return new BulkItemResult(index, sku, Status.UPDATED, id, null);
+    }
+
+    public static BulkItemResult failed(int index, String sku, String error) {
+        return new BulkItemResult(index, sku, Status.FAILED, null, error);
+    }
+}
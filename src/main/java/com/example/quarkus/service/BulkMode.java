@@ -0,0 +1,13 @@
+package com.example.quarkus.service;
+
+/**
+ * How a bulk import treats incoming products, matched by SKU.
+ */
+public enum BulkMode {
+    /** Only insert; products whose SKU already exists fail. */
+    CREATE,
+    /** Only update; products whose SKU does not exist fail. */
+    UPDATE,
+    /** Insert new SKUs and update existing ones. */
+    UPSERT
+}
@@ -0,0 +1,27 @@
+package com.example.quarkus.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+
+    public int created;
+    public int updated;
+    public int failed;
+    public String error;
+    public List<BulkItemResult> items = new ArrayList<>();
+
+    void add(BulkItemResult item, boolean includeInReport) {
+        switch (item.status()) {
+            case CREATED -> created++;
+            case UPDATED -> updated++;
+            case FAILED -> failed++;
+        }
+        if (includeInReport) {
+            items.add(item);
+        }
+    }
+}
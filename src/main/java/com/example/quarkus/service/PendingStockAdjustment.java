@@ -0,0 +1,8 @@
+package com.example.quarkus.service;
+
+/**
+ * An adjustment accepted by the coalesced stock path but not yet written to
+ * the database. {@code available} is the in-memory stock after applying it.
+ */
+public record PendingStockAdjustment(Long productId, int adjustment, long available) {
+}
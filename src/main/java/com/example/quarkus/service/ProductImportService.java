@@ -0,0 +1,102 @@
+package com.example.quarkus.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.entity.Product;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Drives a bulk import: reads products lazily, validates them and hands them
+ * to {@link ProductService#importChunk} in fixed-size chunks, each committed in
+ * its own transaction so a bad chunk does not roll back the whole run.
+ */
+@ApplicationScoped
+public class ProductImportService {
+
+    @Inject
+    ProductService productService;
+
+    @Inject
+    Validator validator;
+
+    @ConfigProperty(name = "product.bulk.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    public BulkResult importProducts(Iterator<Product> products, BulkMode mode, boolean reportAll) {
+        BulkResult result = new BulkResult();
+        Map<Integer, Product> chunk = new LinkedHashMap<>();
+        int index = 0;
+        try {
+            while (products.hasNext()) {
+                Product product = products.next();
+                String error = validate(product);
+                if (error != null) {
+                    result.add(BulkItemResult.failed(index, product == null ? null : product.sku, error), true);
+                } else {
+                    chunk.put(index, product);
+                }
+                index++;
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, mode, result, reportAll);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Malformed input: keep what was already committed and report where we stopped
+            result.error = "Failed to read product at index " + index + ": " + e.getMessage();
+        }
+        writeChunk(chunk, mode, result, reportAll);
+        return result;
+    }
+
+    private String validate(Product product) {
+        if (product == null) {
+            return "Product is required";
+        }
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    private void writeChunk(Map<Integer, Product> chunk, BulkMode mode, BulkResult result, boolean reportAll) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<BulkItemResult> written = productService.importChunk(chunk, mode);
+            for (BulkItemResult item : written) {
+                result.add(item, reportAll || item.status() == BulkItemResult.Status.FAILED);
+            }
+        } catch (RuntimeException e) {
+            for (Map.Entry<Integer, Product> item : chunk.entrySet()) {
+                result.add(BulkItemResult.failed(item.getKey(), item.getValue().sku,
+                        "Chunk rolled back: " + rootMessage(e)), true);
+            }
+        }
+        chunk.clear();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -1,14 +1,41 @@
 package com.example.quarkus.service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.cache.ProductCache;
+import com.example.quarkus.cache.RequestCoalescer;
+import com.example.quarkus.catalog.ColumnarCatalog;
 import com.example.quarkus.entity.Product;
-import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.pagination.Page;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.ProductFields;
+import com.example.quarkus.repository.ProductFilter;
 import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.repository.ProductSort;
+import com.example.quarkus.repository.ProductVersion;
+import com.example.quarkus.search.ProductSearchIndex;
+import com.example.quarkus.search.SearchHit;
+import com.example.quarkus.search.SearchQuery;
+import com.example.quarkus.stats.ProductStatistics;
+import com.example.quarkus.stats.ProductStats;
+import com.example.quarkus.stock.LowStockIndex;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.NotFoundException;
@@ -19,16 +46,46 @@ public class ProductService {
     @Inject
     ProductRepository productRepository;
 
-    public List<Product> getAllProducts() {
-        return productRepository.listAll();
-    }
+    @Inject
+    ProductCache productCache;
 
-    public List<Product> getActiveProducts() {
-        return productRepository.findActiveProducts();
-    }
+    @Inject
+    RequestCoalescer coalescer;
+
+    @Inject
+    StockService stockService;
+
+    @Inject
+    ProductSearchIndex searchIndex;
+
+    @Inject
+    ProductStatistics productStatistics;
+
+    @Inject
+    LowStockIndex lowStockIndex;
+
+    @Inject
+    ColumnarCatalog catalog;
+
+    @Inject
+    Event<ProductChangedEvent> productChanged;
+
+    @ConfigProperty(name = "product.search.max-candidates", defaultValue = "10000")
+    int maxSearchCandidates;
+
+    @ConfigProperty(name = "product.low-stock.max-candidates", defaultValue = "10000")
+    int maxLowStockCandidates;
+
+    @ConfigProperty(name = "product.batch-get.max-keys", defaultValue = "1000")
+    int maxBatchKeys;
+
+    @ConfigProperty(name = "product.batch-get.chunk-size", defaultValue = "200")
+    int batchChunkSize;
 
     public Product getProductById(Long id) {
-        Product product = productRepository.findById(id);
+        Product product = catalog.isServing()
+                ? catalog.findById(id)
+                : productCache.getById(id, this::loadById);
         if (product == null) {
             throw new NotFoundException("Product not found with id: " + id);
         }
@@ -36,27 +93,247 @@ public class ProductService {
     }
 
     public Product getProductBySku(String sku) {
-        Product product = productRepository.findBySku(sku);
+        Product product = catalog.isServing()
+                ? catalog.findBySku(sku)
+                : productCache.getBySku(sku, this::loadBySku);
         if (product == null) {
             throw new NotFoundException("Product not found with SKU: " + sku);
         }
         return product;
     }
 
-    public List<Product> getProductsByCategory(ProductCategory category) {
-        return productRepository.findByCategory(category);
+    /**
+     * Only the requested columns of one product: taken from the cache when
+     * the product is already there, otherwise selected by primary key
+     * without loading an entity.
+     */
+    public Map<String, Object> getProductById(Long id, ProductFields fields) {
+        Product cached = catalog.isServing() ? catalog.findById(id) : productCache.getIfPresent(id);
+        Map<String, Object> row = cached != null
+                ? fields.project(cached)
+                : coalescer.execute("findOneById", List.of(id, fields),
+                        () -> productRepository.findOne(ProductFilter.byId(id), fields));
+        if (row == null) {
+            throw new NotFoundException("Product not found with id: " + id);
+        }
+        return row;
+    }
+
+    public Map<String, Object> getProductBySku(String sku, ProductFields fields) {
+        Map<String, Object> row;
+        if (catalog.isServing()) {
+            Product product = catalog.findBySku(sku);
+            row = product != null ? fields.project(product) : null;
+        } else {
+            row = coalescer.execute("findOneBySku", List.of(sku, fields),
+                    () -> productRepository.findOne(ProductFilter.bySku(sku), fields));
+        }
+        if (row == null) {
+            throw new NotFoundException("Product not found with SKU: " + sku);
+        }
+        return row;
+    }
+
+    /**
+     * Current version of a product, from the cache when it is there and
+     * otherwise from a primary-key lookup of two columns.
+     */
+    public ProductVersion getProductVersion(Long id) {
+        if (catalog.isServing()) {
+            return found(catalog.findVersionById(id), "Product not found with id: " + id);
+        }
+        Product cached = productCache.getIfPresent(id);
+        ProductVersion version = cached != null
+                ? new ProductVersion(cached.id, cached.version)
+                : productRepository.findVersionById(id);
+        if (version == null) {
+            throw new NotFoundException("Product not found with id: " + id);
+        }
+        return version;
+    }
+
+    public ProductVersion getProductVersionBySku(String sku) {
+        if (catalog.isServing()) {
+            return found(catalog.findVersionBySku(sku), "Product not found with SKU: " + sku);
+        }
+        Product cached = productCache.getIfPresent(sku);
+        ProductVersion version = cached != null
+                ? new ProductVersion(cached.id, cached.version)
+                : productRepository.findVersionBySku(sku);
+        if (version == null) {
+            throw new NotFoundException("Product not found with SKU: " + sku);
+        }
+        return version;
+    }
+
+    /**
+     * Products by id and by SKU at once, from the catalog when it serves reads
+     * and otherwise with one IN query per {@code product.batch-get.chunk-size}
+     * distinct keys. Items hold whole products, or only {@code fields} when
+     * given.
+     */
+    public BatchGetResult batchGet(List<Long> ids, List<String> skus, ProductFields fields) {
+        List<Long> requestedIds = ids != null ? ids : List.of();
+        List<String> requestedSkus = skus != null ? skus : List.of();
+        if (requestedIds.isEmpty() && requestedSkus.isEmpty()) {
+            throw new IllegalArgumentException("At least one id or SKU is required");
+        }
+        if (requestedIds.size() + requestedSkus.size() > maxBatchKeys) {
+            throw new IllegalArgumentException("At most " + maxBatchKeys + " ids and SKUs can be requested at once");
+        }
+        if (requestedIds.stream().anyMatch(Objects::isNull) || requestedSkus.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids and SKUs must not be null");
+        }
+
+        Map<Long, Object> byId = new HashMap<>();
+        Map<String, Object> bySku = new HashMap<>();
+        if (catalog.isServing()) {
+            for (Long id : new LinkedHashSet<>(requestedIds)) {
+                Product product = catalog.findById(id);
+                if (product != null) {
+                    byId.put(id, fields == null ? product : fields.project(product));
+                }
+            }
+            for (String sku : new LinkedHashSet<>(requestedSkus)) {
+                Product product = catalog.findBySku(sku);
+                if (product != null) {
+                    bySku.put(sku, fields == null ? product : fields.project(product));
+                }
+            }
+        } else {
+            for (List<Long> chunk : chunks(requestedIds)) {
+                if (fields == null) {
+                    productRepository.findByIds(chunk).forEach(product -> byId.put(product.id, product));
+                } else {
+                    byId.putAll(productRepository.findByIds(chunk, fields));
+                }
+            }
+            for (List<String> chunk : chunks(requestedSkus)) {
+                if (fields == null) {
+                    productRepository.findBySkus(chunk).forEach(product -> bySku.put(product.sku, product));
+                } else {
+                    bySku.putAll(productRepository.findBySkus(chunk, fields));
+                }
+            }
+        }
+
+        List<BatchGetItem> items = new ArrayList<>(requestedIds.size() + requestedSkus.size());
+        requestedIds.forEach(id -> items.add(BatchGetItem.ofId(id, byId.get(id))));
+        requestedSkus.forEach(sku -> items.add(BatchGetItem.ofSku(sku, bySku.get(sku))));
+        return BatchGetResult.of(items);
+    }
+
+    public long getProductGeneration() {
+        return productCache.generation();
+    }
+
+    public boolean isSearchIndexEnabled() {
+        return searchIndex.isEnabled();
+    }
+
+    /**
+     * Relevance-ranked full-text search. Ranking comes from the in-memory
+     * index; the page of products itself is loaded by primary key.
+     */
+    public Page<Product> searchProducts(SearchQuery query, int offset, int size) {
+        List<Long> ids = rankedIds(query, offset, size);
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findByIds(ids)) {
+            byId.put(product.id, product);
+        }
+        // Keep the index order; a product deleted since it was ranked is skipped
+        List<Product> products = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return Page.ofOffset(products, size, offset);
+    }
+
+    public Page<Map<String, Object>> searchProducts(SearchQuery query, int offset, int size, ProductFields fields) {
+        List<Long> ids = rankedIds(query, offset, size);
+        Map<Long, Map<String, Object>> byId = productRepository.findByIds(ids, fields);
+        List<Map<String, Object>> rows = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return Page.ofOffset(rows, size, offset);
     }
 
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContaining(name);
+    /**
+     * Narrows a query to products whose text matches {@code name}. With the
+     * search index this is the id list of its hits when there are at most
+     * {@code product.search.max-candidates} of them, otherwise (and without
+     * the index) a LIKE predicate on the name, so no match is cut off.
+     */
+    public ProductFilter nameFilter(String name) {
+        if (!searchIndex.isEnabled()) {
+            return ProductFilter.nameContaining(name);
+        }
+        List<Long> ids = searchIndex.search(SearchQuery.of(name), maxSearchCandidates + 1).stream()
+                .map(SearchHit::id)
+                .toList();
+        if (ids.size() > maxSearchCandidates) {
+            return ProductFilter.nameContaining(name);
+        }
+        return ids.isEmpty() ? ProductFilter.none() : ProductFilter.idIn(ids);
+    }
+
+    /**
+     * Filter for low-stock lists: an id list from the {@link LowStockIndex}
+     * when it holds at most {@code product.low-stock.max-candidates} matches,
+     * otherwise the plain predicate. The predicate is applied to the id list
+     * as well, so rows changed since the index was updated are left out.
+     */
+    public ProductFilter lowStockFilter(int threshold) {
+        if (catalog.isServing() || !lowStockIndex.isReady()) {
+            return ProductFilter.lowStock(threshold);
+        }
+        List<Long> ids = lowStockIndex.idsAtOrBelow(threshold, maxLowStockCandidates + 1);
+        if (ids.size() > maxLowStockCandidates) {
+            return ProductFilter.lowStock(threshold);
+        }
+        return ids.isEmpty() ? ProductFilter.none() : ProductFilter.idIn(ids).and(ProductFilter.lowStock(threshold));
+    }
+
+    public Page<Product> getProducts(ProductFilter filter, PageRequest pageRequest) {
+        return getProducts(filter, ProductSort.ID, pageRequest);
+    }
+
+    public Page<Product> getProducts(ProductFilter filter, ProductSort sort, PageRequest pageRequest) {
+        if (fromCatalog(filter, sort)) {
+            return catalog.findPage(filter.criteria(), pageRequest);
+        }
+        return coalescer.execute("findPage", pageKey(filter, sort, pageRequest, null),
+                () -> productRepository.findPage(filter, sort, pageRequest));
+    }
+
+    public Page<Map<String, Object>> getProducts(ProductFilter filter, ProductSort sort, PageRequest pageRequest,
+            ProductFields fields) {
+        if (fromCatalog(filter, sort)) {
+            Page<Product> page = catalog.findPage(filter.criteria(), pageRequest);
+            return new Page<>(page.items().stream().map(fields::project).toList(), page.nextCursor());
+        }
+        return coalescer.execute("findProjectedPage", pageKey(filter, sort, pageRequest, fields),
+                () -> productRepository.findPage(filter, sort, pageRequest, fields));
     }
 
-    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findByPriceRange(minPrice, maxPrice);
+    @Transactional
+    public void streamProducts(ProductFilter filter, Long afterId, Consumer<Product> consumer) {
+        streamProducts(filter, ProductSort.ID, afterId, null, consumer);
     }
 
-    public List<Product> getLowStockProducts(int threshold) {
-        return productRepository.findLowStockProducts(threshold);
+    @Transactional
+    public void streamProducts(ProductFilter filter, ProductSort sort, Long afterId, String afterKey,
+            Consumer<Product> consumer) {
+        try (Stream<Product> products = productRepository.stream(filter, sort, afterId, afterKey)) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                // Keep the persistence context empty so memory stays flat
+                productRepository.getEntityManager().detach(product);
+            });
+        }
+    }
+
+    @Transactional
+    public void streamProducts(ProductFilter filter, ProductSort sort, Long afterId, String afterKey,
+            ProductFields fields, Consumer<Map<String, Object>> consumer) {
+        try (Stream<Map<String, Object>> rows = productRepository.stream(filter, sort, afterId, afterKey, fields)) {
+            rows.forEach(consumer);
+        }
     }
 
     @Transactional
@@ -67,12 +344,20 @@ public class ProductService {
         }
 
         productRepository.persist(product);
+        productChanged.fire(ProductChangedEvent.created(ProductSnapshot.of(product)));
         return product;
     }
 
     @Transactional
     public Product updateProduct(Long id, @Valid Product updatedProduct) {
-        Product existingProduct = getProductById(id);
+        Product existingProduct = findExisting(id);
+        ProductSnapshot before = ProductSnapshot.of(existingProduct);
+
+        // A client that sends the version it read gets a conflict instead of a lost update
+        if (updatedProduct.version != null && !updatedProduct.version.equals(existingProduct.version)) {
+            throw new OptimisticLockException("Product " + id + " was modified concurrently (expected version "
+                    + updatedProduct.version + ", current " + existingProduct.version + ")");
+        }
 
         // Check if SKU is being changed and if it already exists
         if (!existingProduct.sku.equals(updatedProduct.sku) &&
@@ -88,52 +373,158 @@ public class ProductService {
         existingProduct.category = updatedProduct.category;
         existingProduct.active = updatedProduct.active;
 
-        return existingProduct;
+        return changed(ProductChangedEvent.Type.UPDATED, before, existingProduct);
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findExisting(id);
         productRepository.delete(product);
+        productChanged.fire(ProductChangedEvent.deleted(ProductSnapshot.of(product)));
     }
 
     @Transactional
     public void deactivateProduct(Long id) {
-        productRepository.deactivateProduct(id);
+        Product product = findExisting(id);
+        ProductSnapshot before = ProductSnapshot.of(product);
+        product.active = false;
+        changed(ProductChangedEvent.Type.DEACTIVATED, before, product);
     }
 
     @Transactional
     public void activateProduct(Long id) {
-        productRepository.activateProduct(id);
+        Product product = findExisting(id);
+        ProductSnapshot before = ProductSnapshot.of(product);
+        product.active = true;
+        changed(ProductChangedEvent.Type.ACTIVATED, before, product);
     }
 
     @Transactional
     public Product updateStock(Long id, int quantity) {
-        Product product = getProductById(id);
+        Product product = findExisting(id);
+        ProductSnapshot before = ProductSnapshot.of(product);
         product.quantity = quantity;
-        return product;
+        return changed(ProductChangedEvent.Type.STOCK_CHANGED, before, product);
     }
 
-    @Transactional
     public Product adjustStock(Long id, int adjustment) {
-        Product product = getProductById(id);
-        int newQuantity = product.quantity + adjustment;
-        if (newQuantity < 0) {
-            throw new IllegalArgumentException("Insufficient stock. Current quantity: " + product.quantity);
+        return stockService.adjust(id, adjustment);
+    }
+
+    /**
+     * Writes one chunk of an already validated bulk import in a single
+     * transaction. Existing SKUs are resolved with one query for the whole
+     * chunk and the inserts/updates go out as JDBC batches on flush.
+     */
+    @Transactional
+    public List<BulkItemResult> importChunk(Map<Integer, Product> chunk, BulkMode mode) {
+        Map<String, Product> bySku = new HashMap<>();
+        for (Product existing : productRepository.findBySkus(chunk.values().stream().map(p -> p.sku).toList())) {
+            bySku.put(existing.sku, existing);
         }
-        product.quantity = newQuantity;
-        return product;
+
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Product> written = new ArrayList<>(chunk.size());
+        List<ProductSnapshot> before = new ArrayList<>(chunk.size());
+        for (Map.Entry<Integer, Product> item : chunk.entrySet()) {
+            int index = item.getKey();
+            Product incoming = item.getValue();
+            Product existing = bySku.get(incoming.sku);
+
+            if (existing == null && mode == BulkMode.UPDATE) {
+                results.add(BulkItemResult.failed(index, incoming.sku, "Product not found with SKU: " + incoming.sku));
+            } else if (existing != null && mode == BulkMode.CREATE) {
+                results.add(BulkItemResult.failed(index, incoming.sku,
+                        "Product with SKU '" + incoming.sku + "' already exists"));
+            } else if (existing == null) {
+                incoming.id = null;
+                productRepository.persist(incoming);
+                bySku.put(incoming.sku, incoming);
+                written.add(incoming);
+                before.add(null);
+                results.add(BulkItemResult.created(index, incoming.sku, incoming.id));
+            } else {
+                before.add(ProductSnapshot.of(existing));
+                existing.name = incoming.name;
+                existing.description = incoming.description;
+                existing.price = incoming.price;
+                existing.quantity = incoming.quantity;
+                existing.category = incoming.category;
+                existing.active = incoming.active;
+                written.add(existing);
+                results.add(BulkItemResult.updated(index, incoming.sku, existing.id));
+            }
+        }
+
+        productRepository.flush();
+        for (int i = 0; i < written.size(); i++) {
+            ProductSnapshot after = ProductSnapshot.of(written.get(i));
+            productChanged.fire(before.get(i) == null
+                    ? ProductChangedEvent.created(after)
+                    : new ProductChangedEvent(ProductChangedEvent.Type.UPDATED, before.get(i), after));
+        }
+        return results;
+    }
+
+    public ProductStats getProductStats() {
+        return productStatistics.current();
+    }
+
+    private <K> List<List<K>> chunks(List<K> keys) {
+        List<K> distinct = List.copyOf(new LinkedHashSet<>(keys));
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += batchChunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + batchChunkSize, distinct.size())));
+        }
+        return chunks;
+    }
+
+    private Product loadById(Long id) {
+        return coalescer.execute("findById", id, () -> productRepository.findById(id));
+    }
+
+    private Product loadBySku(String sku) {
+        return coalescer.execute("findBySku", sku, () -> productRepository.findBySku(sku));
+    }
+
+    // Filters are rebuilt per request, so requests are matched by query text and parameter values
+    private static Object pageKey(ProductFilter filter, ProductSort sort, PageRequest pageRequest,
+            ProductFields fields) {
+        return Arrays.asList(filter.query(), filter.parameters(), sort, pageRequest, fields);
+    }
+
+    // Id-ordered pages of filters the catalog can evaluate; name and id-list filters stay with the database
+    private boolean fromCatalog(ProductFilter filter, ProductSort sort) {
+        return ProductSort.ID.equals(sort) && filter.criteria() != null && catalog.isServing();
+    }
+
+    private static ProductVersion found(ProductVersion version, String message) {
+        if (version == null) {
+            throw new NotFoundException(message);
+        }
+        return version;
     }
 
-    public long getProductCount() {
-        return productRepository.count();
+    // Writes must work on the managed entity, never on a cached copy
+    private Product findExisting(Long id) {
+        Product product = productRepository.findById(id);
+        if (product == null) {
+            throw new NotFoundException("Product not found with id: " + id);
+        }
+        return product;
     }
 
-    public long getActiveProductCount() {
-        return productRepository.countActiveProducts();
+    private Product changed(ProductChangedEvent.Type type, ProductSnapshot before, Product product) {
+        // Flush so the snapshot carries the values written by the update callbacks
+        productRepository.flush();
+        productChanged.fire(new ProductChangedEvent(type, before, ProductSnapshot.of(product)));
+        return product;
     }
 
-    public long getProductCountByCategory(ProductCategory category) {
-        return productRepository.countByCategory(category);
+    private List<Long> rankedIds(SearchQuery query, int offset, int size) {
+        return searchIndex.search(query, offset + size + 1).stream()
+                .skip(offset)
+                .map(SearchHit::id)
+                .toList();
     }
 }
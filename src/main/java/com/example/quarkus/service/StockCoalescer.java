@@ -0,0 +1,300 @@
+package com.example.quarkus.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.repository.ProductQuantity;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.reservation.ReservationLedger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Coalesces stock adjustments per product and writes their sum with one
+ * conditional UPDATE per flush interval.
+ *
+ * Decrements are validated against a {@link StripedStockCounter} seeded from
+ * the database minus the units held by reservations, so no request waits on
+ * the row lock. Holds taken or released while a counter is loaded move its
+ * budget as well. The trade-off is that an
+ * accepted adjustment is only durable after the next flush. When any other
+ * write to the product commits, its counter is retired: closed to new
+ * adjustments, and its unwritten delta carried over to the counter the next
+ * adjustment (or flush) loads from the database, so those units are not
+ * promised twice.
+ *
+ * Loading, draining and retiring the counter of one product, and changing
+ * its holds, run under the counter map's lock for that product, so a counter
+ * is never loaded while a hold is in the ledger but not yet in the counter.
+ * The drained delta is written outside that lock; until its outcome is
+ * settled the product is marked as being written, and loading its counter
+ * waits for the write, since the database may or may not hold the delta yet.
+ * A delta whose write fails is put back (or carried, if the counter was
+ * retired meanwhile) and retried by the next flush, unless the product is
+ * gone or its stock was set below what the delta takes out.
+ */
+@ApplicationScoped
+public class StockCoalescer {
+
+    private static final Logger LOG = Logger.getLogger(StockCoalescer.class);
+
+    // Set while a flush commits so its own change event does not retire the counter
+    private static final ThreadLocal<Boolean> FLUSHING = new ThreadLocal<>();
+
+    @Inject
+    StockService stockService;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    ReservationLedger reservationLedger;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.stock.coalesced.stripes", defaultValue = "8")
+    int stripes;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    // Unwritten deltas of retired counters, by product; taken over by the product's next counter
+    private final Map<Long, Long> carried = new ConcurrentHashMap<>();
+    // Products whose drained delta is being written, completed once the outcome is settled
+    private final Map<Long, CompletableFuture<Void>> writing = new ConcurrentHashMap<>();
+
+    private Counter flushes;
+    private Counter dropped;
+    private Counter retried;
+
+    @PostConstruct
+    void init() {
+        flushes = registry.counter("product.stock.coalesced.flushes");
+        dropped = registry.counter("product.stock.coalesced.dropped");
+        retried = registry.counter("product.stock.coalesced.retried");
+        registry.gauge("product.stock.coalesced.products", counters, Map::size);
+    }
+
+    public PendingStockAdjustment adjust(Long id, int adjustment) {
+        while (true) {
+            StripedStockCounter counter = counters.computeIfAbsent(id, this::load);
+            if (counter == null) {
+                awaitWrite(id);
+                continue;
+            }
+            switch (counter.tryAdjust(adjustment)) {
+                case ACCEPTED:
+                    return new PendingStockAdjustment(id, adjustment, counter.available());
+                case INSUFFICIENT:
+                    throw new IllegalArgumentException("Insufficient stock. Available: " + counter.available());
+                case CLOSED:
+                    // Retired meanwhile: its successor starts from the database plus what it had accepted
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Takes {@code amount} units out of the product's counter, if one is
+     * loaded, and records the hold with {@code ledger}. Neither happens when
+     * the other finds too little stock.
+     */
+    public boolean hold(Long id, int amount, BooleanSupplier ledger) {
+        while (true) {
+            boolean[] held = new boolean[1];
+            boolean[] decided = new boolean[1];
+            counters.compute(id, (key, loaded) -> {
+                StripedStockCounter counter = loaded;
+                // Unwritten deltas of a retired counter only count once its successor takes them over
+                if (counter == null && carried.containsKey(id)) {
+                    counter = load(id);
+                    if (counter == null) {
+                        return null;
+                    }
+                }
+                decided[0] = true;
+                if (counter != null && counter.tryHold(-amount) != StripedStockCounter.Result.ACCEPTED) {
+                    return counter;
+                }
+                held[0] = ledger.getAsBoolean();
+                if (!held[0] && counter != null) {
+                    counter.tryHold(amount);
+                }
+                return counter;
+            });
+            if (decided[0]) {
+                return held[0];
+            }
+            awaitWrite(id);
+        }
+    }
+
+    /**
+     * Releases a hold with {@code ledger} and gives its units back to the
+     * product's counter, if one is loaded.
+     */
+    public void release(Long id, int amount, Runnable ledger) {
+        counters.compute(id, (key, counter) -> {
+            ledger.run();
+            if (counter != null) {
+                counter.tryHold(amount);
+            }
+            return counter;
+        });
+    }
+
+    @Scheduled(every = "${product.stock.coalesced.flush-interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void flush() {
+        // Carried deltas are written through a counter that takes them over
+        for (Long id : carried.keySet()) {
+            try {
+                // Skipped while a write of the product is in flight; its outcome settles the carry
+                counters.computeIfAbsent(id, this::load);
+            } catch (NotFoundException e) {
+                Long delta = carried.remove(id);
+                if (delta != null) {
+                    lost(id, delta, e);
+                }
+            }
+        }
+        counters.keySet().forEach(this::flush);
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        if (FLUSHING.get() == null) {
+            retire(event.productId());
+        }
+    }
+
+    // Runs under the map's lock for the id, so a retiring counter's carry is either in or not yet written.
+    // Null while a drained delta of the product is being written: wait for it with awaitWrite
+    private StripedStockCounter load(Long id) {
+        if (writing.containsKey(id)) {
+            return null;
+        }
+        ProductQuantity product = productRepository.findQuantity(id);
+        if (product == null) {
+            throw new NotFoundException("Product not found with id: " + id);
+        }
+        Long carry = carried.remove(id);
+        long pending = carry != null ? carry : 0;
+        long available = product.quantity() + pending - reservationLedger.held(id);
+        return new StripedStockCounter(id, available, pending, stripes);
+    }
+
+    private void flush(Long id) {
+        long[] drained = new long[1];
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        counters.computeIfPresent(id, (key, counter) -> {
+            // A write still in flight (an overlapping flush) takes this delta on its next turn
+            if (!writing.containsKey(id)) {
+                drained[0] = counter.drainPending();
+                if (drained[0] != 0) {
+                    writing.put(id, written);
+                }
+            }
+            return counter;
+        });
+        long delta = drained[0];
+        if (delta == 0) {
+            return;
+        }
+
+        long unwritten = delta;
+        RuntimeException failure = null;
+        FLUSHING.set(Boolean.TRUE);
+        try {
+            while (unwritten != 0) {
+                int chunk = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, unwritten));
+                // Checked against the holds when accepted. Not checked again: a commit lowers the
+                // quantity before it releases its own hold, which would fail this write in between
+                stockService.adjust(id, chunk, 0);
+                unwritten -= chunk;
+            }
+            flushes.increment();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            FLUSHING.remove();
+        }
+        try {
+            settle(id, unwritten, failure);
+        } finally {
+            written.complete(null);
+        }
+    }
+
+    // Puts back what a flush could not write, except when writing it again cannot succeed
+    private void settle(Long id, long unwritten, RuntimeException failure) {
+        counters.compute(id, (key, counter) -> {
+            writing.remove(id);
+            if (failure == null) {
+                return counter;
+            }
+            if (failure instanceof NotFoundException || failure instanceof IllegalArgumentException) {
+                // The row changed underneath us (deleted, or stock set lower by another write)
+                lost(id, unwritten, failure);
+                if (counter != null) {
+                    counter.close();
+                    carry(id, counter.drainPending());
+                }
+                return null;
+            }
+            retried.increment();
+            LOG.warnf(failure, "Writing stock adjustments of product %d failed, retrying on the next flush (delta %d)",
+                    id, unwritten);
+            if (counter != null) {
+                counter.restorePending(unwritten);
+            } else {
+                carry(id, unwritten);
+            }
+            return counter;
+        });
+    }
+
+    private void awaitWrite(Long id) {
+        CompletableFuture<Void> write = writing.get(id);
+        if (write != null) {
+            write.join();
+        }
+    }
+
+    private void retire(Long id) {
+        counters.computeIfPresent(id, (key, counter) -> {
+            counter.close();
+            carry(id, counter.drainPending());
+            return null;
+        });
+    }
+
+    private void carry(Long id, long delta) {
+        if (delta != 0) {
+            carried.merge(id, delta, Long::sum);
+        }
+    }
+
+    // Clients were told these adjustments were accepted
+    private void lost(Long id, long delta, RuntimeException cause) {
+        dropped.increment();
+        LOG.errorf(cause, "Lost acknowledged stock adjustments of product %d (delta %d)", id, delta);
+    }
+}
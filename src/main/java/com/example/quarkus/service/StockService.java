@@ -0,0 +1,83 @@
+package com.example.quarkus.service;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.reservation.ReservationLedger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Stock adjustments for hot SKUs.
+ *
+ * By default every adjustment is one conditional UPDATE, so concurrent
+ * requests never lose updates and never hold the row lock longer than the
+ * statement itself. With {@code product.stock.coalesced.enabled=true}
+ * adjustments are checked against an in-memory striped counter instead and
+ * written to the database once per flush interval by {@link StockCoalescer}.
+ *
+ * Direct decrements leave the units held by reservations on hand.
+ */
+@ApplicationScoped
+public class StockService {
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockCoalescer stockCoalescer;
+
+    @Inject
+    ReservationLedger reservationLedger;
+
+    @Inject
+    Event<ProductChangedEvent> productChanged;
+
+    @ConfigProperty(name = "product.stock.coalesced.enabled", defaultValue = "false")
+    boolean coalesced;
+
+    public boolean isCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Accepts an adjustment into the in-memory counter; it reaches the
+     * database on the next flush.
+     */
+    public PendingStockAdjustment enqueue(Long id, int adjustment) {
+        return stockCoalescer.adjust(id, adjustment);
+    }
+
+    @Transactional
+    public Product adjust(Long id, int adjustment) {
+        return adjust(id, adjustment, adjustment < 0 ? reservationLedger.held(id) : 0);
+    }
+
+    /**
+     * Applies the adjustment only if at least {@code reserved} units remain.
+     */
+    @Transactional
+    public Product adjust(Long id, int adjustment, long reserved) {
+        if (productRepository.adjustQuantity(id, adjustment, Math.max(0, reserved)) == 0) {
+            Product product = productRepository.findById(id);
+            if (product == null) {
+                throw new NotFoundException("Product not found with id: " + id);
+            }
+            throw new IllegalArgumentException("Insufficient stock. Current quantity: " + product.quantity
+                    + (reserved > 0 ? ", reserved: " + reserved : ""));
+        }
+
+        Product product = productRepository.reload(id);
+        ProductSnapshot after = ProductSnapshot.of(product);
+        productChanged.fire(new ProductChangedEvent(ProductChangedEvent.Type.STOCK_CHANGED,
+                after.withQuantity(after.quantity() - adjustment), after));
+        return product;
+    }
+}
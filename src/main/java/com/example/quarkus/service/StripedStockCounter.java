@@ -0,0 +1,159 @@
+package com.example.quarkus.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory stock of one product, split into stripes so concurrent
+ * adjustments from different threads mostly touch different cache lines.
+ *
+ * The available quantity is the sum of all stripes; a decrement takes from
+ * the caller's stripe first and only falls back to the others (and, as a last
+ * resort, pools every stripe under a lock) when it runs dry. Accepted deltas
+ * are accumulated separately until they are drained by a flush. Holds move
+ * the budget only: they are not stock changes to write.
+ *
+ * Once {@link #close()} returns, no adjustment is accepted any more and every
+ * accepted one is in {@link #drainPending()}.
+ */
+final class StripedStockCounter {
+
+    // Stripes sit 16 longs (128 bytes) apart so two of them never share a cache line
+    private static final int PAD = 16;
+    // Next to each stripe's budget: adjustments in progress on threads whose home it is
+    private static final int ACTIVE = 1;
+
+    enum Result {
+        ACCEPTED,
+        INSUFFICIENT,
+        CLOSED
+    }
+
+    private final Long productId;
+    private final int stripes;
+    private final AtomicLongArray budget;
+    private final LongAdder pending = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * {@code pending} is a delta already accepted but not yet written, and
+     * already included in {@code quantity}.
+     */
+    StripedStockCounter(Long productId, long quantity, long pending, int stripes) {
+        this.productId = productId;
+        this.stripes = stripes;
+        this.budget = new AtomicLongArray(stripes * PAD);
+        for (int i = 0; i < stripes; i++) {
+            budget.set(i * PAD, quantity / stripes + (i == 0 ? quantity % stripes : 0));
+        }
+        this.pending.add(pending);
+    }
+
+    Long productId() {
+        return productId;
+    }
+
+    Result tryAdjust(int delta) {
+        return tryAdjust(delta, true);
+    }
+
+    /**
+     * Takes units for a reservation hold out of the budget (or gives them back
+     * with a positive delta) without adding them to the pending delta.
+     */
+    Result tryHold(int delta) {
+        return tryAdjust(delta, false);
+    }
+
+    private Result tryAdjust(int delta, boolean write) {
+        int home = (int) Math.floorMod(Thread.currentThread().getId(), (long) stripes);
+        // Announce the adjustment before checking closed, so close() either waits for it or it sees closed
+        budget.incrementAndGet(home * PAD + ACTIVE);
+        try {
+            if (closed) {
+                return Result.CLOSED;
+            }
+            return adjust(home, delta, write) ? Result.ACCEPTED : Result.INSUFFICIENT;
+        } finally {
+            budget.decrementAndGet(home * PAD + ACTIVE);
+        }
+    }
+
+    /**
+     * Stops accepting adjustments and waits for those in progress.
+     */
+    void close() {
+        closed = true;
+        for (int i = 0; i < stripes; i++) {
+            while (budget.get(i * PAD + ACTIVE) != 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private boolean adjust(int home, int delta, boolean write) {
+        if (delta >= 0) {
+            budget.addAndGet(home * PAD, delta);
+            record(delta, write);
+            return true;
+        }
+
+        for (int i = 0; i < stripes; i++) {
+            int slot = ((home + i) % stripes) * PAD;
+            long current;
+            while ((current = budget.get(slot)) + delta >= 0) {
+                if (budget.compareAndSet(slot, current, current + delta)) {
+                    record(delta, write);
+                    return true;
+                }
+            }
+        }
+        return rebalance(home, delta, write);
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += budget.get(i * PAD);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the sum of the deltas accepted since the last drain. Deltas
+     * added concurrently land either in this drain or the next one.
+     */
+    long drainPending() {
+        return pending.sumThenReset();
+    }
+
+    /**
+     * Puts back a drained delta that could not be written, for the next
+     * drain. The budget already accounts for it.
+     */
+    void restorePending(long delta) {
+        pending.add(delta);
+    }
+
+    // No single stripe covers the request: pool all of them into the home stripe.
+    // Synchronized so a caller that still finds too little has seen the full total.
+    private synchronized boolean rebalance(int home, int delta, boolean write) {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += budget.getAndSet(i * PAD, 0);
+        }
+        if (total + delta < 0) {
+            budget.addAndGet(home * PAD, total);
+            return false;
+        }
+        budget.addAndGet(home * PAD, total + delta);
+        record(delta, write);
+        return true;
+    }
+
+    private void record(int delta, boolean write) {
+        if (write) {
+            pending.add(delta);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.quarkus.stats;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.ProductAggregate;
+import com.example.quarkus.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Product statistics maintained incrementally from committed
+ * {@link ProductChangedEvent}s, so reads never touch the database.
+ *
+ * Every event removes the {@code before} snapshot from the totals and adds the
+ * {@code after} snapshot. The totals are loaded from one grouped query at
+ * startup and reconciled against it periodically, which repairs drift from
+ * writes that bypass the service (manual SQL, another instance). A
+ * reconciliation that overlaps with a write is skipped and retried on the
+ * next run.
+ */
+@ApplicationScoped
+public class ProductStatistics {
+
+    private static final Logger LOG = Logger.getLogger(ProductStatistics.class);
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.stats.low-stock-threshold", defaultValue = "10")
+    int lowStockThreshold;
+
+    private final Lock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<ProductCategory, Totals> totals = new EnumMap<>(ProductCategory.class);
+    private long appliedEvents;
+    private LocalDateTime reconciledAt;
+
+    private volatile ProductStats current;
+    private Counter drift;
+
+    @PostConstruct
+    void init() {
+        for (ProductCategory category : ProductCategory.values()) {
+            totals.put(category, new Totals());
+        }
+        publish();
+
+        drift = registry.counter("product.stats.drift");
+        registry.gauge("product.stats.products", this, stats -> stats.current.totalProducts());
+        registry.gauge("product.stats.products.active", this, stats -> stats.current.activeProducts());
+        registry.gauge("product.stats.products.low-stock", this, stats -> stats.current.lowStockProducts());
+        registry.gauge("product.stats.inventory.value", this, stats -> stats.current.inventoryValue().doubleValue());
+        for (ProductCategory category : ProductCategory.values()) {
+            Tags tags = Tags.of("category", category.name());
+            registry.gauge("product.stats.category.products", tags, this,
+                    stats -> stats.current.categories().get(category).products());
+            registry.gauge("product.stats.category.inventory.value", tags, this,
+                    stats -> stats.current.categories().get(category).inventoryValue().doubleValue());
+        }
+    }
+
+    public ProductStats current() {
+        return current;
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        reconcile();
+    }
+
+    @Scheduled(every = "${product.stats.reconcile-interval:5m}", delayed = "${product.stats.reconcile-interval:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    public void reconcile() {
+        long seen;
+        lock.lock();
+        try {
+            seen = appliedEvents;
+        } finally {
+            lock.unlock();
+        }
+
+        List<ProductAggregate> aggregates = productRepository.aggregateByCategoryAndActive(lowStockThreshold);
+        Map<ProductCategory, Totals> fresh = new EnumMap<>(ProductCategory.class);
+        for (ProductCategory category : ProductCategory.values()) {
+            fresh.put(category, new Totals());
+        }
+        aggregates.forEach(aggregate -> fresh.get(aggregate.category()).add(aggregate));
+
+        lock.lock();
+        try {
+            if (appliedEvents != seen) {
+                LOG.debug("Products changed during reconciliation, retrying on the next run");
+                return;
+            }
+            for (ProductCategory category : ProductCategory.values()) {
+                ProductStats.CategoryStats expected = fresh.get(category).toStats();
+                ProductStats.CategoryStats actual = totals.get(category).toStats();
+                if (reconciledAt != null && !expected.equals(actual)) {
+                    drift.increment();
+                    LOG.warnf("Statistics for %s drifted from the database: %s, reset to %s", category, actual,
+                            expected);
+                }
+            }
+            totals.putAll(fresh);
+            reconciledAt = LocalDateTime.now();
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        lock.lock();
+        try {
+            apply(event.before(), -1);
+            apply(event.after(), 1);
+            appliedEvents++;
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(ProductSnapshot product, int sign) {
+        if (product != null && product.category() != null) {
+            totals.get(product.category()).add(product, sign, lowStockThreshold);
+        }
+    }
+
+    // Called with the lock held
+    private void publish() {
+        Map<ProductCategory, ProductStats.CategoryStats> categories = new EnumMap<>(ProductCategory.class);
+        long products = 0;
+        long activeProducts = 0;
+        long lowStockProducts = 0;
+        long quantity = 0;
+        BigDecimal inventoryValue = BigDecimal.ZERO.setScale(2);
+        for (Map.Entry<ProductCategory, Totals> entry : totals.entrySet()) {
+            ProductStats.CategoryStats stats = entry.getValue().toStats();
+            categories.put(entry.getKey(), stats);
+            products += stats.products();
+            activeProducts += stats.activeProducts();
+            lowStockProducts += stats.lowStockProducts();
+            quantity += stats.quantity();
+            inventoryValue = inventoryValue.add(stats.inventoryValue());
+        }
+        current = new ProductStats(products, activeProducts, lowStockProducts, lowStockThreshold, quantity,
+                inventoryValue, Collections.unmodifiableMap(categories), reconciledAt);
+    }
+}
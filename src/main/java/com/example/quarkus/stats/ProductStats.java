@@ -0,0 +1,31 @@
+package com.example.quarkus.stats;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.example.quarkus.entity.ProductCategory;
+
+/**
+ * Point-in-time product statistics. {@code lowStockProducts} counts active
+ * products with at most {@code lowStockThreshold} items, as
+ * {@code /api/products/low-stock} does.
+ */
+public record ProductStats(
+        long totalProducts,
+        long activeProducts,
+        long lowStockProducts,
+        int lowStockThreshold,
+        long totalQuantity,
+        BigDecimal inventoryValue,
+        Map<ProductCategory, CategoryStats> categories,
+        LocalDateTime reconciledAt) {
+
+    public record CategoryStats(
+            long products,
+            long activeProducts,
+            long lowStockProducts,
+            long quantity,
+            BigDecimal inventoryValue) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.quarkus.stats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.ProductAggregate;
+
+/**
+ * Mutable running totals of one category. Not thread-safe; guarded by
+ * {@link ProductStatistics}.
+ */
+final class Totals {
+
+    // Prices have two decimals, so every value sum is exact at this scale
+    private static final int VALUE_SCALE = 2;
+
+    long products;
+    long activeProducts;
+    long lowStockProducts;
+    long quantity;
+    BigDecimal inventoryValue = BigDecimal.ZERO.setScale(VALUE_SCALE);
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) one product.
+     */
+    void add(ProductSnapshot product, int sign, int lowStockThreshold) {
+        int items = product.quantity() != null ? product.quantity() : 0;
+        boolean active = Boolean.TRUE.equals(product.active());
+        products += sign;
+        quantity += (long) sign * items;
+        if (active) {
+            activeProducts += sign;
+            if (items <= lowStockThreshold) {
+                lowStockProducts += sign;
+            }
+        }
+        if (product.price() != null) {
+            inventoryValue = inventoryValue.add(product.price().multiply(BigDecimal.valueOf((long) sign * items)))
+                    .setScale(VALUE_SCALE, RoundingMode.HALF_UP);
+        }
+    }
+
+    void add(ProductAggregate aggregate) {
+        products += aggregate.products();
+        quantity += aggregate.quantity();
+        if (aggregate.active()) {
+            activeProducts += aggregate.products();
+            lowStockProducts += aggregate.lowStock();
+        }
+        inventoryValue = inventoryValue.add(aggregate.inventoryValue()).setScale(VALUE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    ProductStats.CategoryStats toStats() {
+        return new ProductStats.CategoryStats(products, activeProducts, lowStockProducts, quantity, inventoryValue);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.quarkus.stock;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product crossing a subscriber's low-stock threshold. {@code CLEARED}
+ * means it no longer counts as low: restocked above the threshold,
+ * deactivated or deleted.
+ */
+public record LowStockAlert(
+        Long productId,
+        String sku,
+        Type type,
+        int quantity,
+        int previousQuantity,
+        int threshold,
+        LocalDateTime occurredAt) {
+
+    public enum Type {
+        LOW_STOCK,
+        OUT_OF_STOCK,
+        CLEARED
+    }
+}
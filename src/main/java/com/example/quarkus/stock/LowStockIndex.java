@@ -0,0 +1,265 @@
+package com.example.quarkus.stock;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.event.ProductSnapshot;
+import com.example.quarkus.repository.ProductQuantity;
+import com.example.quarkus.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Active products ordered by quantity, so the products at or below any
+ * threshold are a head set of the index instead of a table scan.
+ *
+ * Loaded from the database at startup and kept current from committed
+ * {@link ProductChangedEvent}s, whichever write path made them. Events of
+ * one product may arrive out of commit order, so a level older than the one
+ * held is ignored. Every accepted change is also offered to the low-stock
+ * alert subscribers, each of which sees the changes that cross its own
+ * threshold.
+ *
+ * Writes that raise no event here (manual SQL, another instance) are caught
+ * by a periodic reconciliation against the database, whose repairs are
+ * offered to the alert subscribers like any other change.
+ */
+@ApplicationScoped
+public class LowStockIndex {
+
+    private static final Logger LOG = Logger.getLogger(LowStockIndex.class);
+
+    private static final Comparator<Entry> BY_QUANTITY = Comparator.comparingInt(Entry::quantity)
+            .thenComparingLong(Entry::id);
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "product.low-stock.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "product.low-stock.subscriber-buffer", defaultValue = "1000")
+    int subscriberBuffer;
+
+    private final Map<Long, Level> levels = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byQuantity = new ConcurrentSkipListSet<>(BY_QUANTITY);
+    private final BroadcastProcessor<LevelChange> changes = BroadcastProcessor.create();
+    private final AtomicLong appliedEvents = new AtomicLong();
+
+    private volatile boolean ready;
+    private Counter alerts;
+    private Counter drift;
+
+    private record Level(int quantity, boolean active, long version) {
+
+        boolean low(int threshold) {
+            return active && quantity <= threshold;
+        }
+    }
+
+    private record Entry(int quantity, long id) {
+    }
+
+    private record LevelChange(Long productId, String sku, Level before, Level after) {
+    }
+
+    @PostConstruct
+    void init() {
+        alerts = registry.counter("product.low-stock.alerts");
+        drift = registry.counter("product.low-stock.drift");
+        registry.gauge("product.low-stock.indexed", levels, Map::size);
+    }
+
+    /**
+     * Whether {@link #idsAtOrBelow(int, int)} can be used: enabled and loaded.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Stream<ProductQuantity> quantities = productRepository.streamQuantities()) {
+            quantities.forEach(stock -> update(stock.id(), new Level(stock.quantity(),
+                    Boolean.TRUE.equals(stock.active()), stock.version())));
+        }
+        ready = true;
+        LOG.infof("Indexed stock levels of %d products in %d ms", levels.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Replaces the levels that differ from the database and drops products no
+     * longer in it.
+     */
+    @Scheduled(every = "${product.low-stock.reconcile-interval:5m}",
+            delayed = "${product.low-stock.reconcile-interval:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        long seen = appliedEvents.get();
+        Map<Long, ProductQuantity> stored = new HashMap<>();
+        try (Stream<ProductQuantity> quantities = productRepository.streamQuantities()) {
+            quantities.forEach(stock -> stored.put(stock.id(), stock));
+        }
+
+        List<LevelChange> repaired = new ArrayList<>();
+        int removed = 0;
+        synchronized (this) {
+            if (appliedEvents.get() != seen) {
+                LOG.debug("Products changed during low-stock reconciliation, retrying on the next run");
+                return;
+            }
+            for (ProductQuantity stock : stored.values()) {
+                Level level = new Level(stock.quantity(), Boolean.TRUE.equals(stock.active()), stock.version());
+                Level current = levels.get(stock.id());
+                if (!level.equals(current)) {
+                    replace(stock.id(), current, level);
+                    repaired.add(new LevelChange(stock.id(), stock.sku(),
+                            current != null ? current : new Level(0, false, -1), level));
+                }
+            }
+            for (Long id : List.copyOf(levels.keySet())) {
+                if (!stored.containsKey(id)) {
+                    remove(id);
+                    removed++;
+                }
+            }
+        }
+        if (!repaired.isEmpty() || removed > 0) {
+            drift.increment(repaired.size() + removed);
+            LOG.warnf("Low-stock index drifted from the database: %d levels repaired, %d removed",
+                    repaired.size(), removed);
+            repaired.forEach(changes::onNext);
+        }
+    }
+
+    void onProductChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        appliedEvents.incrementAndGet();
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            Level before = remove(event.productId());
+            if (before != null) {
+                changes.onNext(new LevelChange(event.productId(), event.before().sku(), before,
+                        new Level(before.quantity(), false, before.version())));
+            }
+            return;
+        }
+        ProductSnapshot product = event.after();
+        if (product.version() == null) {
+            return;
+        }
+        Level after = new Level(product.quantity(), Boolean.TRUE.equals(product.active()), product.version());
+        Level before = update(product.id(), after);
+        if (before != after) {
+            changes.onNext(new LevelChange(product.id(), product.sku(),
+                    before != null ? before : new Level(0, false, -1), after));
+        }
+    }
+
+    /**
+     * Ids of active products with at most {@code threshold} items, lowest
+     * quantity first, stopping after {@code limit}.
+     */
+    public List<Long> idsAtOrBelow(int threshold, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Entry entry : byQuantity.headSet(new Entry(threshold, Long.MAX_VALUE), true)) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Live alerts for products crossing {@code threshold} in either direction.
+     * A subscriber more than {@code product.low-stock.subscriber-buffer}
+     * changes behind is failed.
+     */
+    public Multi<LowStockAlert> alerts(int threshold) {
+        return changes.onOverflow().buffer(subscriberBuffer)
+                .select().where(change -> change.before().low(threshold) != change.after().low(threshold)
+                        || (change.after().low(threshold) && change.after().quantity() == 0
+                                && change.before().quantity() > 0))
+                .map(change -> alert(change, threshold))
+                .onItem().invoke(alert -> alerts.increment());
+    }
+
+    private static LowStockAlert alert(LevelChange change, int threshold) {
+        Level after = change.after();
+        LowStockAlert.Type type;
+        if (!after.low(threshold)) {
+            type = LowStockAlert.Type.CLEARED;
+        } else {
+            type = after.quantity() == 0 ? LowStockAlert.Type.OUT_OF_STOCK : LowStockAlert.Type.LOW_STOCK;
+        }
+        return new LowStockAlert(change.productId(), change.sku(), type, after.quantity(),
+                change.before().quantity(), threshold, LocalDateTime.now());
+    }
+
+    // Returns the level replaced, or the given level itself when it is not newer than the one held
+    private synchronized Level update(Long id, Level level) {
+        Level current = levels.get(id);
+        if (current != null && current.version() >= level.version()) {
+            return level;
+        }
+        replace(id, current, level);
+        return current;
+    }
+
+    private void replace(Long id, Level current, Level level) {
+        levels.put(id, level);
+        if (current != null && current.active()) {
+            byQuantity.remove(new Entry(current.quantity(), id));
+        }
+        if (level.active()) {
+            byQuantity.add(new Entry(level.quantity(), id));
+        }
+    }
+
+    private synchronized Level remove(Long id) {
+        Level current = levels.remove(id);
+        if (current != null && current.active()) {
+            byQuantity.remove(new Entry(current.quantity(), id));
+        }
+        return current;
+    }
+}
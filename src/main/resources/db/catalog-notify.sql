@@ -0,0 +1,33 @@
+-- Change notifications for the columnar catalog of every instance (product_changes channel).
+-- Run by CatalogChangeListener on every subscription; every write to products
+-- then sends one notification, whether or not anyone listens. To stop paying
+-- for it after disabling product.catalog.listen.enabled everywhere:
+--   DROP TRIGGER IF EXISTS products_notify_change ON products;
+CREATE OR REPLACE FUNCTION notify_product_change() RETURNS trigger AS $$
+DECLARE
+    changed products%ROWTYPE;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    PERFORM pg_notify('product_changes', json_build_object(
+        'id', changed.id,
+        'op', TG_OP,
+        'version', changed.version,
+        'at', floor(extract(epoch FROM clock_timestamp()) * 1000)
+    )::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Created only if missing: replacing it would drop the changes of other instances meanwhile
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'products_notify_change') THEN
+        CREATE TRIGGER products_notify_change
+            AFTER INSERT OR UPDATE OR DELETE ON products
+            FOR EACH ROW EXECUTE FUNCTION notify_product_change();
+    END IF;
+END $$;
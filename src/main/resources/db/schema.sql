@@ -2,13 +2,18 @@
 -- Note: The database inventory_db is created via Docker environment variables
 
 -- Create sequence for products ID
+-- INCREMENT must match allocationSize on Product.id: Hibernate's pooled optimizer
+-- reserves a block of 50 ids per nextval() instead of one round trip per insert
 CREATE SEQUENCE IF NOT EXISTS products_seq
-    INCREMENT 1
+    INCREMENT 50
     START 1
     MINVALUE 1
     MAXVALUE 9223372036854775807
     CACHE 1;
 
+-- Re-running this script also fixes databases created with the old INCREMENT 1
+ALTER SEQUENCE products_seq INCREMENT BY 50;
+
 -- Create products table
 CREATE TABLE IF NOT EXISTS products (
     id BIGINT PRIMARY KEY DEFAULT nextval('products_seq'::regclass),
@@ -20,14 +25,81 @@ CREATE TABLE IF NOT EXISTS products (
     category VARCHAR(50) NOT NULL,
     active BOOLEAN NOT NULL DEFAULT TRUE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+-- Optimistic lock column for databases created before it existed
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
 -- Create index for better performance
 CREATE INDEX IF NOT EXISTS idx_products_sku ON products(sku);
 CREATE INDEX IF NOT EXISTS idx_products_category ON products(category);
 CREATE INDEX IF NOT EXISTS idx_products_active ON products(active);
-CREATE INDEX IF NOT EXISTS idx_products_name ON products(name);
+
+-- Composite indexes for /api/products/search. Every list is keyset-paginated
+-- with id as the last sort key, so each index ends in id: the filter prefix
+-- narrows the range and the rest serves the ORDER BY without a sort step.
+CREATE INDEX IF NOT EXISTS idx_products_category_price_id ON products(category, price, id);
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products(category, id);
+CREATE INDEX IF NOT EXISTS idx_products_active_quantity_id ON products(active, quantity, id);
+-- Partial index for /low-stock (quantity <= ? and active = true): only active
+-- products are indexed, so it stays small and needs no leading active column
+CREATE INDEX IF NOT EXISTS idx_products_low_stock ON products(quantity, id) WHERE active = true;
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products(price, id);
+CREATE INDEX IF NOT EXISTS idx_products_quantity_id ON products(quantity, id);
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products(created_at, id);
+-- Replaces idx_products_name, which only served equality on name
+DROP INDEX IF EXISTS idx_products_name;
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products(name, id);
+
+-- Transactional outbox: one row per product change, kept for a while once published
+CREATE SEQUENCE IF NOT EXISTS product_outbox_seq
+    INCREMENT 50
+    START 1
+    MINVALUE 1
+    MAXVALUE 9223372036854775807
+    CACHE 1;
+
+CREATE TABLE IF NOT EXISTS product_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('product_outbox_seq'::regclass),
+    product_id BIGINT NOT NULL,
+    product_version BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    published_order INTEGER
+);
+
+ALTER TABLE product_outbox ADD COLUMN IF NOT EXISTS published_at TIMESTAMP;
+ALTER TABLE product_outbox ADD COLUMN IF NOT EXISTS published_order INTEGER;
+CREATE INDEX IF NOT EXISTS idx_product_outbox_unpublished ON product_outbox(id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_outbox_published ON product_outbox(published_at, published_order);
+
+-- Append-only reservation log: one row per item and state change, never updated
+CREATE SEQUENCE IF NOT EXISTS stock_reservations_seq
+    INCREMENT 50
+    START 1
+    MINVALUE 1
+    MAXVALUE 9223372036854775807
+    CACHE 1;
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id BIGINT PRIMARY KEY DEFAULT nextval('stock_reservations_seq'::regclass),
+    reservation_id VARCHAR(36) NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    status VARCHAR(10) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_reservation_id ON stock_reservations(reservation_id);
+
+-- Change notifications for the columnar catalog (product_changes channel) are
+-- installed by db/catalog-notify.sql once an instance listens for them, so
+-- writes pay for the trigger only when product.catalog.listen.enabled=true
 
 -- Insert sample data
 INSERT INTO products (name, description, price, quantity, sku, category, active) VALUES
@@ -1,23 +1,122 @@
 package com.example.quarkus;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
 import org.junit.jupiter.api.Test;
 
+import com.example.quarkus.cache.RequestCoalescer;
+import com.example.quarkus.catalog.ColumnarCatalog;
 import com.example.quarkus.entity.Product;
 import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.entity.StockReservation;
+import com.example.quarkus.event.ProductChangedEvent;
+import com.example.quarkus.outbox.ChangeBroker;
+import com.example.quarkus.outbox.ProductChange;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.OutboxRepository;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.reservation.ReservationService;
+import com.example.quarkus.search.ProductSearchIndex;
+import com.example.quarkus.service.StockCoalescer;
+import com.example.quarkus.stock.LowStockAlert;
+import com.example.quarkus.stock.LowStockIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
 import static io.restassured.RestAssured.given;
+import io.restassured.config.DecoderConfig;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.path.json.config.JsonPathConfig;
+import jakarta.inject.Inject;
 
 @QuarkusTest
 public class ProductControllerTest {
 
+    @Inject
+    ChangeBroker changeBroker;
+
+    @Inject
+    LowStockIndex lowStockIndex;
+
+    @Inject
+    ColumnarCatalog catalog;
+
+    @Inject
+    RequestCoalescer coalescer;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    StockCoalescer stockCoalescer;
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    ProductSearchIndex searchIndex;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    ReservationService reservationService;
+
     @Test
     public void testGetAllProducts() {
         given()
@@ -128,4 +227,1142 @@ public class ProductControllerTest {
                 .statusCode(200)
                 .contentType(ContentType.JSON);
     }
+
+    @Test
+    public void testGetAllProductsIsPaginatedWithCursor() {
+        createProduct("Paged Product One", "PAGE-001", ProductCategory.TOYS);
+        createProduct("Paged Product Two", "PAGE-002", ProductCategory.TOYS);
+
+        String cursor = given()
+                .queryParam("size", 1)
+                .when().get("/api/products/category/TOYS")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("size()", is(1))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("size", 1)
+                .queryParam("cursor", cursor)
+                .when().get("/api/products/category/TOYS")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].sku", is("PAGE-002"));
+    }
+
+    @Test
+    public void testGetAllProductsWithInvalidCursor() {
+        given()
+                .queryParam("cursor", "not-a-cursor")
+                .when().get("/api/products")
+                .then()
+                .statusCode(400)
+                .body("error", containsString("Invalid cursor"));
+    }
+
+    @Test
+    public void testStreamProductsAsNdjson() {
+        createProduct("Streamed Product", "STREAM-001", ProductCategory.AUTOMOTIVE);
+
+        given()
+                .accept("application/x-ndjson")
+                .when().get("/api/products/category/AUTOMOTIVE")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .body(containsString("\"sku\":\"STREAM-001\""));
+    }
+
+    @Test
+    public void testCachedLookupsSeeWrites() {
+        // Remember the SKU as missing, then create it
+        given()
+                .when().get("/api/products/sku/CACHE-001")
+                .then()
+                .statusCode(404);
+        Long id = createProduct("Cached Product", "CACHE-001", ProductCategory.BEAUTY);
+
+        given()
+                .when().get("/api/products/sku/CACHE-001")
+                .then()
+                .statusCode(200)
+                .body("quantity", is(3));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quantity", 42))
+                .when().put("/api/products/" + id + "/stock")
+                .then()
+                .statusCode(200);
+
+        given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantity", is(42));
+        given()
+                .when().get("/api/products/sku/CACHE-001")
+                .then()
+                .statusCode(200)
+                .body("quantity", is(42));
+    }
+
+    @Test
+    public void testBulkUpsertWithPerItemReport() {
+        createProduct("Bulk Existing", "BULK-001", ProductCategory.SPORTS);
+
+        String body = "["
+                + "{\"name\":\"Bulk Existing Renamed\",\"price\":12.50,\"quantity\":7,\"sku\":\"BULK-001\",\"category\":\"SPORTS\"},"
+                + "{\"name\":\"Bulk New\",\"price\":5.00,\"quantity\":1,\"sku\":\"BULK-002\",\"category\":\"SPORTS\"},"
+                + "{\"name\":\"X\",\"price\":-1,\"quantity\":1,\"sku\":\"BULK-003\",\"category\":\"SPORTS\"}"
+                + "]";
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(body)
+                .when().post("/api/products/bulk")
+                .then()
+                .statusCode(200)
+                .body("created", is(1))
+                .body("updated", is(1))
+                .body("failed", is(1))
+                .body("items.find { it.sku == 'BULK-003' }.status", is("FAILED"));
+
+        given()
+                .when().get("/api/products/sku/BULK-001")
+                .then()
+                .statusCode(200)
+                .body("name", is("Bulk Existing Renamed"));
+    }
+
+    @Test
+    public void testBulkCreateFromNdjson() {
+        String body = "{\"name\":\"Ndjson One\",\"price\":1.00,\"quantity\":1,\"sku\":\"BULK-ND-1\",\"category\":\"BOOKS\"}\n"
+                + "{\"name\":\"Ndjson Two\",\"price\":2.00,\"quantity\":2,\"sku\":\"BULK-ND-2\",\"category\":\"BOOKS\"}\n";
+
+        given()
+                .contentType("application/x-ndjson")
+                .queryParam("mode", "CREATE")
+                .body(body)
+                .when().post("/api/products/bulk")
+                .then()
+                .statusCode(200)
+                .body("created", is(2))
+                .body("failed", is(0));
+    }
+
+    @Test
+    public void testAdjustStockNeverGoesNegative() {
+        Long id = createProduct("Hot Product", "STOCK-001", ProductCategory.FOOD_BEVERAGE);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", -5))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(400)
+                .body("error", containsString("Insufficient stock"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", -2))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(200)
+                .body("quantity", is(1))
+                .body("version", is(1));
+    }
+
+    @Test
+    public void testUpdateWithStaleVersionConflicts() {
+        Long id = createProduct("Versioned Product", "VERSION-001", ProductCategory.OTHER);
+
+        Map<String, Object> update = Map.of(
+                "name", "Versioned Product v2",
+                "price", 11.00,
+                "quantity", 3,
+                "sku", "VERSION-001",
+                "category", "OTHER",
+                "active", true,
+                "version", 0);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(update)
+                .when().put("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("version", is(1));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(update)
+                .when().put("/api/products/" + id)
+                .then()
+                .statusCode(409);
+    }
+
+    @Test
+    public void testSearchIsRankedAndTypoTolerant() {
+        Long blender = createProduct("Turbo Smoothie Blender", "SEARCH-001", ProductCategory.HOME_GARDEN);
+        createProduct("Blender Replacement Jar", "SEARCH-002", ProductCategory.HOME_GARDEN);
+
+        given()
+                .queryParam("name", "smoothie blendr")
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].id", is(blender.intValue()));
+
+        given()
+                .queryParam("name", "blend")
+                .queryParam("size", 1)
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .header("X-Next-Cursor", notNullValue());
+
+        given()
+                .queryParam("name", "smoothie")
+                .queryParam("maxPrice", 5)
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(0));
+    }
+
+    @Test
+    public void testSearchIndexIsReconciledWithTheDatabase() {
+        Long id = createProduct("Plain Kettle", "SEARCH-DRIFT-001", ProductCategory.HOME_GARDEN);
+        QuarkusTransaction.requiringNew().run(() -> productRepository.getEntityManager()
+                .createNativeQuery("update products set name = 'Quixotic Kettle' where id = ?1")
+                .setParameter(1, id)
+                .executeUpdate());
+        given()
+                .queryParam("name", "quixotic")
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(0));
+
+        searchIndex.reconcile();
+        given()
+                .queryParam("name", "quixotic")
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("id", contains(id.intValue()));
+    }
+
+    @Test
+    public void testSearchCombinesFiltersWithSortAndFields() {
+        createProduct("Query Widget A", "QUERY-001", ProductCategory.CLOTHING);
+        createProduct("Query Widget B", "QUERY-002", ProductCategory.CLOTHING);
+        createProduct("Query Widget C", "QUERY-003", ProductCategory.BOOKS);
+
+        String cursor = given()
+                .queryParam("name", "query widget")
+                .queryParam("category", "CLOTHING")
+                .queryParam("minPrice", 5)
+                .queryParam("maxQuantity", 3)
+                .queryParam("sort", "-name")
+                .queryParam("fields", "sku,price")
+                .queryParam("size", 1)
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].sku", is("QUERY-002"))
+                .body("[0].name", nullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("name", "query widget")
+                .queryParam("category", "CLOTHING")
+                .queryParam("minPrice", 5)
+                .queryParam("maxQuantity", 3)
+                .queryParam("sort", "-name")
+                .queryParam("fields", "sku,price")
+                .queryParam("size", 1)
+                .queryParam("cursor", cursor)
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].sku", is("QUERY-001"))
+                .header("X-Next-Cursor", nullValue());
+    }
+
+    @Test
+    public void testSearchRejectsInvalidRangeAndSort() {
+        given()
+                .queryParam("minPrice", 10)
+                .queryParam("maxPrice", 1)
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(400);
+
+        given()
+                .queryParam("sort", "description")
+                .when().get("/api/products/search")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testSparseFieldsets() {
+        Long id = createProduct("Sparse Product", "FIELDS-001", ProductCategory.ELECTRONICS);
+
+        given()
+                .queryParam("fields", "id,sku,price,quantity")
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("sku", is("FIELDS-001"))
+                .body("quantity", is(3))
+                .body("description", nullValue())
+                .body("size()", is(4));
+
+        given()
+                .queryParam("fields", "sku")
+                .when().get("/api/products/sku/FIELDS-001")
+                .then()
+                .statusCode(200)
+                .body("sku", is("FIELDS-001"))
+                .body("size()", is(1));
+
+        given()
+                .queryParam("fields", "sku,name")
+                .when().get("/api/products/category/ELECTRONICS")
+                .then()
+                .statusCode(200)
+                .body("find { it.sku == 'FIELDS-001' }.name", is("Sparse Product"))
+                .body("find { it.sku == 'FIELDS-001' }.price", nullValue());
+
+        given()
+                .queryParam("fields", "sku,password")
+                .when().get("/api/products")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testConditionalGet() {
+        Long id = createProduct("Tagged Product", "ETAG-001", ProductCategory.BOOKS);
+
+        String tag = given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", tag)
+                .when().get("/api/products/sku/ETAG-001")
+                .then()
+                .statusCode(304)
+                .header("ETag", is(tag));
+
+        given()
+                .header("If-None-Match", tag)
+                .queryParam("fields", "id,sku")
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200);
+
+        String listTag = given()
+                .when().get("/api/products/category/BOOKS")
+                .then()
+                .statusCode(200)
+                .header("ETag", startsWith("W/"))
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", listTag)
+                .when().get("/api/products/category/BOOKS")
+                .then()
+                .statusCode(304);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quantity", 7))
+                .when().put("/api/products/" + id + "/stock")
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("If-None-Match", tag)
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", not(tag))
+                .body("quantity", is(7));
+
+        given()
+                .header("If-None-Match", listTag)
+                .when().get("/api/products/category/BOOKS")
+                .then()
+                .statusCode(200);
+
+        String categoriesTag = given()
+                .when().get("/api/products/categories")
+                .then()
+                .statusCode(200)
+                .header("Cache-Control", containsString("max-age=86400"))
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", categoriesTag)
+                .when().get("/api/products/categories")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    public void testStatsAreMaintainedIncrementally() {
+        JsonPath before = stats();
+
+        // 10.00 x 3 items, active, below the low-stock threshold
+        Long id = createProduct("Counted Product", "STATS-001", ProductCategory.TOYS);
+
+        JsonPath after = stats();
+        assertEquals(before.getLong("totalProducts") + 1, after.getLong("totalProducts"));
+        assertEquals(before.getLong("activeProducts") + 1, after.getLong("activeProducts"));
+        assertEquals(before.getLong("lowStockProducts") + 1, after.getLong("lowStockProducts"));
+        assertEquals(before.getLong("categories.TOYS.products") + 1, after.getLong("categories.TOYS.products"));
+        assertEquals(0, before.<BigDecimal>get("inventoryValue").add(new BigDecimal("30.00"))
+                .compareTo(after.get("inventoryValue")));
+
+        given().when().put("/api/products/" + id + "/deactivate").then().statusCode(200);
+
+        JsonPath deactivated = stats();
+        assertEquals(after.getLong("totalProducts"), deactivated.getLong("totalProducts"));
+        assertEquals(before.getLong("activeProducts"), deactivated.getLong("activeProducts"));
+        assertEquals(before.getLong("lowStockProducts"), deactivated.getLong("lowStockProducts"));
+        assertEquals(before.getLong("categories.TOYS.activeProducts"),
+                deactivated.getLong("categories.TOYS.activeProducts"));
+    }
+
+    @Test
+    public void testCachedListResponsesFollowWrites() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            createProduct("Cached List Product " + i, "RESP-00" + i, ProductCategory.SPORTS);
+        }
+        // The second request is served from the response cache
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .when().get("/api/products/category/SPORTS")
+                    .then()
+                    .statusCode(200)
+                    .body(containsString("RESP-005"));
+        }
+
+        createProduct("Cached List Product 6", "RESP-006", ProductCategory.SPORTS);
+
+        byte[] gzipped = given()
+                .config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+                .header("Accept-Encoding", "gzip")
+                .when().get("/api/products/category/SPORTS")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .header("Vary", containsString("Accept-Encoding"))
+                .extract().asByteArray();
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            String json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(json.contains("RESP-006"));
+        }
+    }
+
+    @Test
+    public void testNegotiatedListsVaryOnAcceptAndEncoding() {
+        String tag = given()
+                .when().get("/api/products/category/BOOKS")
+                .then()
+                .statusCode(200)
+                .header("Vary", is("Accept, Accept-Encoding"))
+                .extract().header("ETag");
+        given()
+                .header("If-None-Match", tag)
+                .when().get("/api/products/category/BOOKS")
+                .then()
+                .statusCode(304)
+                .header("Vary", is("Accept, Accept-Encoding"));
+        given()
+                .accept("application/cbor")
+                .when().get("/api/products/search?name=book")
+                .then()
+                .statusCode(200)
+                .header("Vary", is("Accept, Accept-Encoding"));
+        given()
+                .accept("application/x-ndjson")
+                .when().get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("Vary", is("Accept, Accept-Encoding"));
+    }
+
+    @Test
+    public void testListTagsDifferPerRepresentation() {
+        Map<String, String> tags = new HashMap<>();
+        for (String type : List.of("application/json", "application/cbor")) {
+            for (String coding : List.of("gzip", "identity")) {
+                String tag = given()
+                        .accept(type)
+                        .header("Accept-Encoding", coding)
+                        .when().get("/api/products/category/TOYS")
+                        .then()
+                        .statusCode(200)
+                        .extract().header("ETag");
+                tags.put(type + " " + coding, tag);
+
+                given()
+                        .accept(type)
+                        .header("Accept-Encoding", coding)
+                        .header("If-None-Match", tag)
+                        .when().get("/api/products/category/TOYS")
+                        .then()
+                        .statusCode(304)
+                        .header("ETag", is(tag));
+            }
+        }
+        assertEquals(4, Set.copyOf(tags.values()).size(), tags.toString());
+
+        // A cache holding the gzipped JSON page must not have it revalidated for another variant
+        given()
+                .accept("application/cbor")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", tags.get("application/json gzip"))
+                .when().get("/api/products/category/TOYS")
+                .then()
+                .statusCode(200);
+        given()
+                .accept("application/json")
+                .header("Accept-Encoding", "identity")
+                .header("If-None-Match", tags.get("application/json gzip"))
+                .when().get("/api/products/category/TOYS")
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    public void testListsInBinaryFormats() throws IOException {
+        createProduct("Binary Product", "BINARY-001", ProductCategory.ELECTRONICS);
+
+        Map<String, ObjectMapper> formats = Map.of(
+                "application/cbor", new ObjectMapper(new CBORFactory()),
+                "application/x-jackson-smile", new ObjectMapper(new SmileFactory()));
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            byte[] body = given()
+                    .accept(format.getKey())
+                    .when().get("/api/products/category/ELECTRONICS")
+                    .then()
+                    .statusCode(200)
+                    .header("Content-Type", startsWith(format.getKey()))
+                    .extract().asByteArray();
+            JsonNode products = format.getValue().readTree(body);
+            assertTrue(products.isArray());
+            assertTrue(products.findValuesAsText("sku").contains("BINARY-001"), format.getKey());
+        }
+    }
+
+    @Test
+    public void testPersistenceMetricsAreTaggedByEndpoint() {
+        createProduct("Metered Product", "METRICS-001", ProductCategory.BOOKS);
+        given().when().get("/api/products/low-stock").then().statusCode(200);
+
+        String lowStock = "endpoint=\"ProductController.getLowStockProducts\",method=\"findPage\"";
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("product_repository_query_seconds_bucket{" + lowStock))
+                .body(containsString("product_repository_rows_count{" + lowStock))
+                .body(containsString(
+                        "product_transaction_seconds_count{endpoint=\"ProductController.createProduct\",outcome=\"committed\""));
+    }
+
+    @Test
+    public void testSecondLevelCacheFollowsActivationAndStockUpdates() {
+        Long id = createProduct("Second Level Cached", "L2-001", ProductCategory.SPORTS);
+        given().when().get("/api/products/" + id).then().statusCode(200);
+
+        given().when().put("/api/products/" + id + "/deactivate").then().statusCode(200);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", 4))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(200)
+                .body("quantity", is(7))
+                .body("active", is(false))
+                .body("version", is(2));
+
+        given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantity", is(7))
+                .body("active", is(false));
+
+        // A new session finds the product in the entity region, with the state after both writes
+        CacheRegionStatistics entities = sessionFactory.getStatistics()
+                .getDomainDataRegionStatistics(Product.class.getName());
+        long hits = entities.getHitCount();
+        Product cached = QuarkusTransaction.requiringNew().call(() -> productRepository.findById(id));
+        assertEquals(hits + 1, entities.getHitCount());
+        assertEquals(7, cached.quantity);
+        assertFalse(cached.active);
+    }
+
+    @Test
+    public void testFirstCategoryPageIsServedFromTheQueryCache() {
+        createProduct("Query Cached One", "QUERY-CACHE-001", ProductCategory.FOOD_BEVERAGE);
+        Long second = createProduct("Query Cached Two", "QUERY-CACHE-002", ProductCategory.FOOD_BEVERAGE);
+        CacheRegionStatistics region = sessionFactory.getStatistics()
+                .getQueryRegionStatistics(ProductRepository.CATEGORY_QUERY_REGION);
+        Supplier<List<Long>> firstPage = () -> QuarkusTransaction.requiringNew().call(() -> productRepository
+                .findPage(ProductFilter.byCategory(ProductCategory.FOOD_BEVERAGE), new PageRequest(null, null, 1000))
+                .items().stream().map(product -> product.id).toList());
+
+        List<Long> ids = firstPage.get();
+        long hits = region.getHitCount();
+        assertEquals(ids, firstPage.get());
+        assertEquals(hits + 1, region.getHitCount());
+
+        // Stock changes leave the listing, and its cached ids, alone
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", 5))
+                .when().put("/api/products/" + second + "/stock/adjust")
+                .then()
+                .statusCode(200);
+        assertEquals(ids, firstPage.get());
+        assertEquals(hits + 2, region.getHitCount());
+
+        // A new product in the category does not
+        Long third = createProduct("Query Cached Three", "QUERY-CACHE-003", ProductCategory.FOOD_BEVERAGE);
+        List<Long> after = firstPage.get();
+        assertEquals(hits + 2, region.getHitCount());
+        assertTrue(after.contains(third));
+    }
+
+    @Test
+    public void testChangesArePublishedInVersionOrder()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Future<List<ProductChange>> changes = changeBroker.subscribe()
+                .select().where(change -> change.product().contains("\"OUTBOX-001\""))
+                .select().first(2)
+                .collect().asList()
+                .subscribe().asCompletionStage()
+                .toCompletableFuture();
+
+        Long id = createProduct("Outboxed", "OUTBOX-001", ProductCategory.BOOKS);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", 2))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(200);
+
+        List<ProductChange> published = changes.get(10, TimeUnit.SECONDS);
+        assertEquals(ProductChangedEvent.Type.CREATED, published.get(0).type());
+        assertEquals(ProductChangedEvent.Type.STOCK_CHANGED, published.get(1).type());
+        assertEquals(0, published.get(0).version());
+        assertEquals(1, published.get(1).version());
+        assertEquals(id, published.get(1).productId());
+        assertTrue(published.get(1).product().contains("\"quantity\":5"));
+    }
+
+    @Test
+    public void testChangeStreamResumesAfterLastEventId()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Future<List<ProductChange>> live = changeBroker.subscribe()
+                .select().where(change -> change.product().contains("\"OUTBOX-002\""))
+                .select().first(3)
+                .collect().asList()
+                .subscribe().asCompletionStage()
+                .toCompletableFuture();
+
+        Long id = createProduct("Resumed", "OUTBOX-002", ProductCategory.BOOKS);
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(Map.of("adjustment", 1))
+                    .when().put("/api/products/" + id + "/stock/adjust")
+                    .then()
+                    .statusCode(200);
+        }
+        long created = live.get(10, TimeUnit.SECONDS).get(0).id();
+
+        // Published rows stay in the outbox for subscribers that reconnect
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (QuarkusTransaction.requiringNew().call(
+                () -> outboxRepository.count("productId = ?1 and publishedAt is null", id)) > 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        List<ProductChange> resumed = changeBroker.subscribe(created)
+                .select().where(change -> change.productId().equals(id))
+                .select().first(2)
+                .collect().asList()
+                .subscribe().asCompletionStage()
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(1L, 2L), resumed.stream().map(ProductChange::version).toList());
+    }
+
+    @Test
+    public void testResumedChangeStreamKeepsVersionOrderWhileChangesArePublished()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Long id = createProduct("Resumed Live", "OUTBOX-003", ProductCategory.BOOKS);
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(Map.of("adjustment", 1))
+                    .when().put("/api/products/" + id + "/stock/adjust")
+                    .then()
+                    .statusCode(200);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (QuarkusTransaction.requiringNew().call(
+                () -> outboxRepository.count("productId = ?1 and publishedAt is null", id)) > 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        List<ProductChange> published = QuarkusTransaction.requiringNew().call(
+                () -> outboxRepository.list("productId = ?1 order by productVersion", id).stream()
+                        .map(event -> new ProductChange(event.id, event.productId, event.type, event.productVersion,
+                                event.createdAt, event.payload))
+                        .toList());
+        assertEquals(4, published.size());
+
+        Future<List<ProductChange>> resumed = changeBroker.subscribe(published.get(0).id())
+                .select().where(change -> change.productId().equals(id))
+                .select().first(4)
+                .collect().asList()
+                .subscribe().asCompletionStage()
+                .toCompletableFuture();
+        // Published live while the replay still reads the outbox: the version 3 change again, then version 4
+        ProductChange third = published.get(3);
+        changeBroker.publish(List.of(third, new ProductChange(Long.MAX_VALUE, id,
+                ProductChangedEvent.Type.STOCK_CHANGED, 4, LocalDateTime.now(), third.product())));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L),
+                resumed.get(10, TimeUnit.SECONDS).stream().map(ProductChange::version).toList());
+    }
+
+    @Test
+    public void testCoalescedAdjustmentsCarryOverRetiredCounters() {
+        Long id = createProduct("Coalesced", "COALESCED-001", ProductCategory.OTHER);
+        assertEquals(1, stockCoalescer.adjust(id, -2).available());
+
+        // Another write retires the counter before its delta is flushed
+        given().when().put("/api/products/" + id + "/deactivate").then().statusCode(200);
+        assertThrows(IllegalArgumentException.class, () -> stockCoalescer.adjust(id, -2));
+        assertEquals(0, stockCoalescer.adjust(id, -1).available());
+
+        stockCoalescer.flush();
+        given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantity", is(0))
+                .body("active", is(false));
+    }
+
+    @Test
+    public void testCoalescedAdjustmentsSurviveFailedFlushes() throws SQLException, InterruptedException {
+        Long id = createProduct("Coalesced Retry", "COALESCED-003", ProductCategory.OTHER);
+        assertEquals(23, stockCoalescer.adjust(id, 20).available());
+
+        // The database refuses the write until the constraint is dropped
+        execute("alter table products add constraint coalesced_retry check (id <> " + id + " or quantity < 10)");
+        try {
+            stockCoalescer.flush();
+            given()
+                    .when().get("/api/products/" + id)
+                    .then()
+                    .statusCode(200)
+                    .body("quantity", is(3));
+        } finally {
+            execute("alter table products drop constraint coalesced_retry");
+        }
+
+        // A scheduled flush may hold the write meanwhile, which makes this one skip the product
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        stockCoalescer.flush();
+        while (quantity(id) != 23 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            stockCoalescer.flush();
+        }
+        assertEquals(23, quantity(id));
+    }
+
+    @Test
+    public void testCoalescedAdjustmentsLeaveHeldStockAlone() {
+        Long id = createProduct("Coalesced Hold", "COALESCED-002", ProductCategory.OTHER);
+        String reservationId = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("items", List.of(Map.of("productId", id, "quantity", 2))))
+                .when().post("/api/reservations")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        assertThrows(IllegalArgumentException.class, () -> stockCoalescer.adjust(id, -2));
+        assertEquals(0, stockCoalescer.adjust(id, -1).available());
+
+        // The last unit is sold but not written yet
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("items", List.of(Map.of("productId", id, "quantity", 1))))
+                .when().post("/api/reservations")
+                .then()
+                .statusCode(409);
+
+        given()
+                .when().post("/api/reservations/" + reservationId + "/release")
+                .then()
+                .statusCode(200);
+        assertEquals(0, stockCoalescer.adjust(id, -2).available());
+
+        stockCoalescer.flush();
+        given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantity", is(0));
+    }
+
+    @Test
+    public void testReservationsLapsedWhileDownAreExpiredAtStartup() {
+        Long id = createProduct("Lapsed Reservation", "RESERVE-LAPSED-001", ProductCategory.OTHER);
+        String reservationId = UUID.randomUUID().toString();
+        // Held before a shutdown, expired before the next start
+        LocalDateTime expiresAt = LocalDateTime.now().minusHours(2);
+        QuarkusTransaction.requiringNew().run(() -> {
+            StockReservation row = new StockReservation();
+            row.reservationId = reservationId;
+            row.productId = id;
+            row.quantity = 2;
+            row.status = StockReservation.Status.HELD;
+            row.expiresAt = expiresAt;
+            row.createdAt = expiresAt.minusMinutes(15);
+            row.persist();
+        });
+        Counter expired = registry.counter("product.reservations", "outcome", "expired");
+        double before = expired.count();
+
+        reservationService.expireLapsed(expiresAt.plusSeconds(1));
+        given()
+                .when().get("/api/reservations/" + reservationId)
+                .then()
+                .statusCode(200)
+                .body("status", is("EXPIRED"));
+        assertEquals(before + 1, expired.count());
+        given()
+                .when().get("/api/products/" + id + "/availability")
+                .then()
+                .statusCode(200)
+                .body("reserved", is(0))
+                .body("available", is(3));
+    }
+
+    @Test
+    public void testReservationsHoldStockUntilCommitted() {
+        Long id = createProduct("Reserved", "RESERVE-001", ProductCategory.OTHER);
+        Map<String, Object> twoUnits = Map.of("items", List.of(Map.of("productId", id, "quantity", 2)));
+
+        String reservationId = given()
+                .contentType(ContentType.JSON)
+                .body(twoUnits)
+                .when().post("/api/reservations")
+                .then()
+                .statusCode(201)
+                .body("status", is("HELD"))
+                .body("items[0].quantity", is(2))
+                .extract().path("id");
+
+        given()
+                .when().get("/api/products/" + id + "/availability")
+                .then()
+                .statusCode(200)
+                .body("quantity", is(3))
+                .body("reserved", is(2))
+                .body("available", is(1));
+        given()
+                .contentType(ContentType.JSON)
+                .body(twoUnits)
+                .when().post("/api/reservations")
+                .then()
+                .statusCode(409);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", -2))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(400);
+
+        given()
+                .when().post("/api/reservations/" + reservationId + "/commit")
+                .then()
+                .statusCode(200)
+                .body("status", is("COMMITTED"));
+        given()
+                .when().post("/api/reservations/" + reservationId + "/release")
+                .then()
+                .statusCode(409);
+        given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantity", is(1));
+        given()
+                .when().get("/api/products/" + id + "/availability")
+                .then()
+                .statusCode(200)
+                .body("reserved", is(0))
+                .body("available", is(1));
+    }
+
+    @Test
+    public void testLowStockAlertsArePushedOnThresholdCrossings()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Future<List<LowStockAlert>> alerts = lowStockIndex.alerts(5)
+                .select().where(alert -> "LOWSTOCK-001".equals(alert.sku()))
+                .select().first(3)
+                .collect().asList()
+                .subscribe().asCompletionStage()
+                .toCompletableFuture();
+
+        Long id = createProduct("Running Low", "LOWSTOCK-001", ProductCategory.CLOTHING);
+        given()
+                .queryParam("threshold", 3)
+                .queryParam("size", 1000)
+                .when().get("/api/products/low-stock")
+                .then()
+                .statusCode(200)
+                .body("sku", hasItem("LOWSTOCK-001"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", 10))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(200);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quantity", 0))
+                .when().put("/api/products/" + id + "/stock")
+                .then()
+                .statusCode(200);
+        given()
+                .queryParam("threshold", 0)
+                .queryParam("size", 1000)
+                .when().get("/api/products/low-stock")
+                .then()
+                .statusCode(200)
+                .body("sku", hasItem("LOWSTOCK-001"));
+
+        List<LowStockAlert> received = alerts.get(10, TimeUnit.SECONDS);
+        assertEquals(LowStockAlert.Type.LOW_STOCK, received.get(0).type());
+        assertEquals(3, received.get(0).quantity());
+        assertEquals(LowStockAlert.Type.CLEARED, received.get(1).type());
+        assertEquals(13, received.get(1).quantity());
+        assertEquals(LowStockAlert.Type.OUT_OF_STOCK, received.get(2).type());
+        assertEquals(13, received.get(2).previousQuantity());
+    }
+
+    @Test
+    public void testLowStockIndexIsReconciledWithTheDatabase() {
+        Long id = createProduct("Restocked Elsewhere", "LOWSTOCK-DRIFT-001", ProductCategory.CLOTHING);
+        assertTrue(lowStockIndex.idsAtOrBelow(3, Integer.MAX_VALUE).contains(id));
+
+        QuarkusTransaction.requiringNew().run(() -> productRepository.getEntityManager()
+                .createNativeQuery("update products set quantity = 50, version = version + 1 where id = ?1")
+                .setParameter(1, id)
+                .executeUpdate());
+        lowStockIndex.reconcile();
+        assertFalse(lowStockIndex.idsAtOrBelow(3, Integer.MAX_VALUE).contains(id));
+    }
+
+    @Test
+    public void testColumnarCatalogFollowsWrites() {
+        catalog.rebuild();
+        Long id = createProduct("Columnar Product", "COLUMNAR-001", ProductCategory.FOOD_BEVERAGE);
+        Long deleted = createProduct("Columnar Product 2", "COLUMNAR-002", ProductCategory.FOOD_BEVERAGE);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("adjustment", 4))
+                .when().put("/api/products/" + id + "/stock/adjust")
+                .then()
+                .statusCode(200);
+        given().when().delete("/api/products/" + deleted).then().statusCode(204);
+
+        Product product = catalog.findBySku("COLUMNAR-001");
+        assertEquals(id, product.id);
+        assertEquals(7, product.quantity);
+        assertEquals(new BigDecimal("10.00"), product.price);
+        assertEquals(1L, product.version);
+        assertNull(catalog.findById(deleted));
+
+        ProductFilter filter = ProductFilter.byCategory(ProductCategory.FOOD_BEVERAGE)
+                .and(ProductFilter.priceBetween(new BigDecimal("9.995"), new BigDecimal("10")))
+                .and(ProductFilter.quantityAtLeast(7));
+        List<String> skus = catalog.findPage(filter.criteria(), PageRequest.of(null, 1000, 1000)).items().stream()
+                .map(row -> row.sku)
+                .toList();
+        assertTrue(skus.contains("COLUMNAR-001"));
+        assertFalse(skus.contains("COLUMNAR-002"));
+        assertEquals(skus.size(), catalog.count(filter.criteria()));
+    }
+
+    @Test
+    public void testConcurrentIdenticalReadsShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> load = () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "loaded";
+        };
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> coalescer.execute("coalescing-test", "key", load));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        List<CompletableFuture<String>> followers = List.of(
+                CompletableFuture.supplyAsync(() -> coalescer.execute("coalescing-test", "key", load)),
+                CompletableFuture.supplyAsync(() -> coalescer.execute("coalescing-test", "key", load)));
+        awaitCount("coalescing-test", "follower", 2);
+        release.countDown();
+
+        assertEquals("loaded", leader.get(10, TimeUnit.SECONDS));
+        for (CompletableFuture<String> follower : followers) {
+            assertEquals("loaded", follower.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+
+        // A failed call fails its followers with the same exception
+        CountDownLatch failingStarted = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("load failed");
+        Thread failing = new Thread(() -> assertThrows(IllegalStateException.class,
+                () -> coalescer.execute("coalescing-failure-test", "key", () -> {
+                    failingStarted.countDown();
+                    try {
+                        fail.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw failure;
+                })));
+        failing.start();
+        assertTrue(failingStarted.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(
+                () -> coalescer.execute("coalescing-failure-test", "key", () -> "not shared"));
+        awaitCount("coalescing-failure-test", "follower", 1);
+        fail.countDown();
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS));
+        assertSame(failure, thrown.getCause());
+        failing.join(10_000);
+    }
+
+    @Test
+    public void testBatchGetReturnsItemsInRequestOrder() {
+        Long first = createProduct("Batch Product 1", "BATCH-001", ProductCategory.AUTOMOTIVE);
+        Long second = createProduct("Batch Product 2", "BATCH-002", ProductCategory.AUTOMOTIVE);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("ids", List.of(second, -1, first, second), "skus", List.of("BATCH-001", "BATCH-404")))
+                .when().post("/api/products/batch-get")
+                .then()
+                .statusCode(200)
+                .body("found", is(4))
+                .body("missing", is(2))
+                .body("items.id", contains(second.intValue(), -1, first.intValue(), second.intValue(), null, null))
+                .body("items.found", contains(true, false, true, true, true, false))
+                .body("items[0].product.sku", is("BATCH-002"))
+                .body("items[1].product", nullValue())
+                .body("items[4].sku", is("BATCH-001"))
+                .body("items[4].product.id", is(first.intValue()));
+
+        given()
+                .queryParam("sku", "BATCH-002")
+                .queryParam("id", first)
+                .queryParam("fields", "sku,price")
+                .when().get("/api/products/batch-get")
+                .then()
+                .statusCode(200)
+                .body("items[0].product.sku", is("BATCH-001"))
+                .body("items[0].product.price", is(10.0f))
+                .body("items[0].product.name", nullValue())
+                .body("items[1].sku", is("BATCH-002"))
+                .body("items[1].product.sku", is("BATCH-002"));
+
+        given().when().get("/api/products/batch-get").then().statusCode(400);
+    }
+
+    private void awaitCount(String operation, String role, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.counter("product.coalescing.calls", "operation", operation, "role", role).count() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int quantity(Long id) {
+        return given()
+                .when().get("/api/products/" + id)
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getInt("quantity");
+    }
+
+    private JsonPath stats() {
+        return given()
+                .when().get("/api/products/stats")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath()
+                .using(new JsonPathConfig(JsonPathConfig.NumberReturnType.BIG_DECIMAL));
+    }
+
+    private Long createProduct(String name, String sku, ProductCategory category) {
+        Product product = new Product();
+        product.name = name;
+        product.description = name + " description";
+        product.price = new BigDecimal("10.00");
+        product.quantity = 3;
+        product.sku = sku;
+        product.category = category;
+        product.active = true;
+
+        return given()
+                .contentType(ContentType.JSON)
+                .body(product)
+                .when().post("/api/products")
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
 }
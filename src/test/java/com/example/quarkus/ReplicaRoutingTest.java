@@ -0,0 +1,206 @@
+package com.example.quarkus;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.quarkus.datasource.ReplicaRouter;
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.pagination.PageRequest;
+import com.example.quarkus.repository.ProductFilter;
+import com.example.quarkus.repository.ProductRepository;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.InjectableContext;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+
+/**
+ * Runs with the replica enabled. The test replica is a separate database
+ * holding the schema but no rows, so a read that went to it finds nothing,
+ * unless a test copies the rows over to stand in for replication.
+ */
+@QuarkusTest
+@TestProfile(ReplicaRoutingTest.ReplicaProfile.class)
+public class ReplicaRoutingTest {
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    AgroalDataSource primary;
+
+    @Inject
+    @DataSource(ReplicaRouter.REPLICA)
+    AgroalDataSource replica;
+
+    public static class ReplicaProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("product.replica.enabled", "true");
+        }
+    }
+
+    @BeforeEach
+    void copySchemaToReplica() throws SQLException {
+        replicate("script nodata");
+    }
+
+    @Test
+    public void testReadOnlyQueriesAreRoutedToReplica() {
+        createProduct("Replicated Product", "REPLICA-001");
+        given().when().get("/api/products/category/HOME_GARDEN").then().statusCode(200);
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                // The SKU check of createProduct runs in its transaction, the list outside of one
+                .body(containsString("product_datasource_route_total{reason=\"transaction\",target=\"primary\"}"))
+                .body(containsString("product_datasource_route_total{reason=\"read-only\",target=\"replica\"}"))
+                .body(containsString("agroal_active_count{datasource=\"replica\"}"));
+    }
+
+    @Test
+    public void testEveryPublicReadDeclaresItsDatasource() {
+        Long id = createProduct("Routed Product", "REPLICA-002");
+        Map<String, Supplier<Object>> reads = Map.of(
+                "findById", () -> productRepository.findById(id),
+                "findByIdOptional", () -> productRepository.findByIdOptional(id),
+                "listAll", () -> productRepository.listAll(),
+                "count", () -> productRepository.count(),
+                "findBySku", () -> productRepository.findBySku("REPLICA-002"),
+                "findByIds", () -> productRepository.findByIds(List.of(id)),
+                "findVersionById", () -> productRepository.findVersionById(id),
+                "findPage", () -> productRepository.findPage(ProductFilter.all(), new PageRequest(null, null, 10)),
+                "findVersionBySku", () -> productRepository.findVersionBySku("REPLICA-002"),
+                "existsBySku", () -> productRepository.existsBySku("REPLICA-002"));
+        reads.forEach((name, read) -> assertEquals(ReplicaRouter.REPLICA, tenantOf(read), name));
+
+        // Same session type, different database: the replica holds no rows
+        assertEquals(0L, inRequest(() -> productRepository.count()));
+        assertTrue(QuarkusTransaction.requiringNew().call(() -> productRepository.count()) > 0);
+        assertEquals(ReplicaRouter.PRIMARY, QuarkusTransaction.requiringNew().call(() -> {
+            productRepository.findById(id);
+            return tenant();
+        }));
+    }
+
+    @Test
+    public void testPrimaryReadsStayOnPrimaryAfterReadOnlyRead() {
+        Long id = createProduct("Primary Quantity", "REPLICA-004");
+        // The replica has no rows: a quantity read routed to it would find no product
+        assertEquals(3, inRequest(() -> {
+            productRepository.findBySku("REPLICA-004");
+            assertEquals(ReplicaRouter.REPLICA, tenant());
+            return productRepository.findQuantity(id).quantity();
+        }));
+    }
+
+    @Test
+    public void testReplicaReadsFollowPrimaryWrites() throws SQLException {
+        Long id = createProduct("Cached On Replica", "REPLICA-003");
+        replicate("script");
+        sessionFactory.getCache().evictEntityData(Product.class, id);
+        // Loaded by a replica session into the second-level cache
+        assertEquals(3, inRequest(() -> productRepository.findById(id).quantity.intValue()));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quantity", 7))
+                .when().put("/api/products/" + id + "/stock")
+                .then()
+                .statusCode(200);
+        replicate("script");
+
+        assertEquals(7, inRequest(() -> productRepository.findById(id).quantity.intValue()));
+    }
+
+    // Replaces the replica's content with the primary's, schema only or with rows
+    private void replicate(String script) throws SQLException {
+        try (Connection source = primary.getConnection();
+                Connection target = replica.getConnection();
+                Statement export = source.createStatement();
+                Statement ddl = target.createStatement();
+                ResultSet statements = export.executeQuery(script)) {
+            ddl.execute("drop all objects");
+            while (statements.next()) {
+                ddl.execute(statements.getString(1));
+            }
+        }
+    }
+
+    // Runs the read in a request context of its own, so it opens the session
+    private String tenantOf(Supplier<Object> read) {
+        return inRequest(() -> {
+            read.get();
+            return tenant();
+        });
+    }
+
+    private String tenant() {
+        return productRepository.getEntityManager().unwrap(Session.class).getTenantIdentifier();
+    }
+
+    private static <T> T inRequest(Supplier<T> work) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        InjectableContext.ContextState outer = requestContext.isActive() ? requestContext.getState() : null;
+        if (outer != null) {
+            requestContext.deactivate();
+        }
+        requestContext.activate();
+        try {
+            return work.get();
+        } finally {
+            requestContext.terminate();
+            if (outer != null) {
+                requestContext.activate(outer);
+            }
+        }
+    }
+
+    private Long createProduct(String name, String sku) {
+        Product product = new Product();
+        product.name = name;
+        product.description = name + " description";
+        product.price = new BigDecimal("10.00");
+        product.quantity = 3;
+        product.sku = sku;
+        product.category = ProductCategory.HOME_GARDEN;
+        product.active = true;
+
+        return given()
+                .contentType(ContentType.JSON)
+                .body(product)
+                .when().post("/api/products")
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.quarkus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.example.quarkus.entity.Product;
+import com.example.quarkus.entity.ProductCategory;
+import com.example.quarkus.repository.ProductRepository;
+import com.example.quarkus.service.StockCoalescer;
+import com.example.quarkus.service.StockService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Throughput of decrementing one hot SKU from a growing number of threads.
+ * Run with {@code mvn test -Pbenchmark}; point the test datasource at
+ * PostgreSQL for numbers that reflect real row-lock contention.
+ *
+ * <ul>
+ * <li>optimistic: load, modify, commit with {@code @Version}, retry on conflict</li>
+ * <li>atomic: one conditional UPDATE per adjustment</li>
+ * <li>coalesced: striped in-memory counter, one UPDATE per flush</li>
+ * </ul>
+ */
+@QuarkusTest
+@Tag("benchmark")
+public class StockContentionBenchmarkTest {
+
+    private static final int[] THREADS = { 1, 2, 4, 8, 16, 32 };
+    private static final long DURATION_MS = Long.getLong("benchmark.duration-ms", 2000);
+    private static final int INITIAL_STOCK = 100_000_000;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    StockService stockService;
+
+    @Inject
+    StockCoalescer stockCoalescer;
+
+    @Test
+    public void hotSkuThroughput() throws Exception {
+        System.out.printf("%-8s %12s %12s %12s%n", "threads", "optimistic", "atomic", "coalesced");
+        for (int threads : THREADS) {
+            double optimistic = run("optimistic", threads, id -> {
+                while (true) {
+                    try {
+                        QuarkusTransaction.requiringNew().run(() -> productRepository.findById(id).quantity--);
+                        return;
+                    } catch (RuntimeException e) {
+                        // Version conflict: another thread committed first, retry with fresh state
+                    }
+                }
+            });
+            double atomic = run("atomic", threads, id -> stockService.adjust(id, -1));
+            double coalesced = run("coalesced", threads, id -> stockCoalescer.adjust(id, -1));
+            System.out.printf("%-8d %12.0f %12.0f %12.0f%n", threads, optimistic, atomic, coalesced);
+        }
+    }
+
+    // Returns adjustments per second and checks that none of them were lost
+    private double run(String name, int threads, LongConsumer decrement) throws Exception {
+        Long id = createHotProduct(name + "-" + threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                long done = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    decrement.accept(id);
+                    done++;
+                }
+                return done;
+            }));
+        }
+        start.countDown();
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        stockCoalescer.flush();
+        int quantity = QuarkusTransaction.requiringNew().call(() -> productRepository.findById(id).quantity);
+        assertEquals(INITIAL_STOCK - total, quantity, name + " lost updates with " + threads + " threads");
+        return total * 1000.0 / DURATION_MS;
+    }
+
+    private Long createHotProduct(String suffix) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Product product = new Product("Hot SKU " + suffix, null, new BigDecimal("1.00"), INITIAL_STOCK,
+                    "BENCH-" + suffix, ProductCategory.OTHER, true);
+            productRepository.persist(product);
+            return product.id;
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.quarkus;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.example.quarkus.monitoring.PinnedThreadMonitor;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+
+/**
+ * Drives reads and writes concurrently through the virtual-thread endpoints
+ * and fails if a virtual thread blocked while pinned by a synchronized method
+ * of this application. Pinning inside libraries is logged and counted but not
+ * asserted. Only runs on Java 21+, where endpoints actually execute on
+ * virtual threads.
+ */
+@QuarkusTest
+@TestProfile(VirtualThreadPinningTest.PinningMonitorProfile.class)
+@EnabledIf("virtualThreadsAvailable")
+public class VirtualThreadPinningTest {
+
+    private static final int CLIENTS = 64;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    @Inject
+    PinnedThreadMonitor monitor;
+
+    public static class PinningMonitorProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "product.virtual-threads.pinning-monitor.enabled", "true",
+                    "product.virtual-threads.pinning-monitor.threshold", "0ms");
+        }
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Test
+    public void testRequestPathDoesNotPinOnApplicationMonitors() throws Exception {
+        assertTrue(monitor.isRunning());
+
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"Pinning Probe\", \"price\": 5.00, \"quantity\": 1000000, \"sku\": \"PIN-001\", \"category\": \"OTHER\"}")
+                .when().post("/api/products")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                results.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        given().when().get("/api/products?size=20").then().statusCode(200);
+                        given().when().get("/api/products/search?name=probe").then().statusCode(200);
+                        given()
+                                .contentType(ContentType.JSON)
+                                .body("{\"adjustment\": -1}")
+                                .when().put("/api/products/" + id + "/stock/adjust")
+                                .then()
+                                .statusCode(200);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        // JFR streams events about once per second
+        Thread.sleep(2000);
+
+        List<PinnedThreadMonitor.PinnedEvent> inApplication = monitor.recent().stream()
+                .filter(event -> event.synchronizedFrame() != null
+                        && event.synchronizedFrame().startsWith("com.example.quarkus."))
+                .toList();
+        System.out.printf("Pinned events: %d total, %d held by application monitors%n", monitor.count(),
+                inApplication.size());
+        assertEquals(List.of(), inApplication);
+    }
+}